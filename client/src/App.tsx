@@ -7,6 +7,7 @@ import ReportPage from "@/pages/ReportPage";
 import { Report } from "@/hooks/useReports";
 import { CategoryValue } from "@/types/categories";
 import ResultsPage from "@/pages/ResultsPage";
+import { fetchWithRefresh } from "@/api/session";
 
 const serverBase = import.meta.env.VITE_SERVER_URL;
 
@@ -28,7 +29,7 @@ function AppRoutes() {
     const checkAuthStatus = async (): Promise<boolean> => {
         try {
             console.log('[App] Checking /users/me with credentials...');
-            const res = await fetch(`${serverBase}/users/me`, {
+            const res = await fetchWithRefresh(`${serverBase}/users/me`, {
                 method: 'GET',
                 mode: 'cors',
                 credentials: 'include',
@@ -0,0 +1,29 @@
+const AUTH = import.meta.env.VITE_AUTH_URL as string | undefined;
+
+let pendingRefresh: Promise<boolean> | null = null;
+
+/**
+ * Exchanges the refresh-token cookie for a new access token.
+ * Concurrent callers share one request, since each refresh token is single-use.
+ */
+export function refreshSession(): Promise<boolean> {
+    if (!AUTH) return Promise.resolve(false);
+    if (!pendingRefresh) {
+        pendingRefresh = fetch(`${AUTH}/refresh`, { method: "POST", credentials: "include" })
+            .then(res => res.ok)
+            .catch(() => false)
+            .finally(() => {
+                pendingRefresh = null;
+            });
+    }
+    return pendingRefresh;
+}
+
+/**
+ * fetch() that renews an expired access token once and retries on 401.
+ */
+export async function fetchWithRefresh(input: RequestInfo | URL, init?: RequestInit): Promise<Response> {
+    const res = await fetch(input, init);
+    if (res.status !== 401) return res;
+    return (await refreshSession()) ? fetch(input, init) : res;
+}
@@ -2,6 +2,7 @@
 'use client';
 
 import {useEffect, useState} from 'react';
+import { fetchWithRefresh } from '@/api/session';
 
 export function useTestEndpoints() {
     const [userData, setUserData] = useState<string | null>(null);
@@ -16,7 +17,7 @@ export function useTestEndpoints() {
             setUserData('Error: VITE_SERVER_URL not configured');
             return;
         }
-        fetch(`${serverBase}/users/me`, {credentials: 'include'})
+        fetchWithRefresh(`${serverBase}/users/me`, {credentials: 'include'})
             .then(res => res.ok ? res.text() : Promise.reject(new Error(`Status ${res.status}`)))
             .then(setUserData)
             .catch(err => setUserData(`Error: ${err.message}`));
@@ -38,7 +39,7 @@ export function useTestEndpoints() {
             setGenAiHelloData('Error: VITE_GENAI_URL not configured');
             return;
         }
-        fetch(`${genAIBase}/hello`, {credentials: 'include'})
+        fetchWithRefresh(`${genAIBase}/hello`, {credentials: 'include'})
             .then(res => res.ok ? res.text() : Promise.reject(new Error(`Status ${res.status}`)))
             .then(setGenAiHelloData)
             .catch(err => setGenAiHelloData(`Error: ${err.message}`));
@@ -2,6 +2,7 @@ import React, {useMemo, useEffect, useState, useCallback} from "react";
 import {Card, CardContent, CardHeader, CardTitle} from "@/components/ui/card";
 import ChartCard from "./ChartCard";
 import { MainCategory } from "@/types/categories";
+import { fetchWithRefresh } from "@/api/session";
 
 // Define the 4 main categories with their colors
 const PRESET_GROUPS = [
@@ -35,7 +36,7 @@ const CategoryCharts: React.FC<Props> = ({reports}) => {
         if (!base) return Promise.reject(new Error('VITE_SERVER_URL not set')) as Promise<T>;
         const url = `${base}${path}`;
         console.log('[CategoryCharts] →', opts.method ?? 'GET', url, opts.body ?? '');
-        return fetch(url, {
+        return fetchWithRefresh(url, {
             credentials: 'include',
             headers: {'Content-Type': 'application/json', ...(opts.headers || {})}, ...opts
         })
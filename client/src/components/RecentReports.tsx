@@ -10,6 +10,7 @@ import {
 import { Button } from "@/components/ui/button";
 import { Badge } from "@/components/ui/badge";
 import { MainCategory } from "@/types/categories";
+import { fetchWithRefresh } from "@/api/session";
 
 // Define the 4 main categories with their colors
 const PRESET_GROUPS = [
@@ -51,7 +52,7 @@ const RecentReportsGrid: React.FC<Props> = ({
         if (!base) return Promise.reject(new Error('VITE_SERVER_URL not set')) as Promise<T>;
         const url = `${base}${path}`;
         console.log('[RecentReports] →', opts.method ?? 'GET', url, opts.body ?? '');
-        return fetch(url, {
+        return fetchWithRefresh(url, {
             credentials: 'include',
             headers: {'Content-Type': 'application/json', ...(opts.headers || {})}, ...opts
         })
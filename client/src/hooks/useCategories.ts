@@ -1,4 +1,5 @@
 import {useCallback, useEffect, useState} from "react";
+import {fetchWithRefresh} from "@/api/session";
 import {CategoryValue, MainCategory} from "@/types/categories";
 
 const SERVER = import.meta.env.VITE_SERVER_URL as string | undefined;
@@ -9,7 +10,7 @@ const base = SERVER
     })();
 
 async function api<T>(opts: RequestInit = {}): Promise<T> {
-    const res = await fetch(base, {
+    const res = await fetchWithRefresh(base, {
         credentials: "include",
         headers: {"Content-Type": "application/json", ...(opts.headers || {})},
         ...opts,
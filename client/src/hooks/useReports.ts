@@ -1,4 +1,5 @@
 import { useCallback, useEffect, useState } from "react";
+import { fetchWithRefresh } from "@/api/session";
 
 const SERVER = import.meta.env.VITE_SERVER_URL as string | undefined;
 
@@ -23,7 +24,7 @@ async function api<T>(endpoint: string, opts: RequestInit = {}): Promise<T> {
         throw new Error("VITE_SERVER_URL not set");
     }
     
-    const res = await fetch(`${SERVER}${endpoint}`, {
+    const res = await fetchWithRefresh(`${SERVER}${endpoint}`, {
         credentials: "include",
         headers: { "Content-Type": "application/json", ...(opts.headers || {}) },
         ...opts,
@@ -20,6 +20,7 @@ import {
 import { Input } from "@/components/ui/input";
 import { Button } from "@/components/ui/button";
 import { Separator } from "@/components/ui/separator";
+import { fetchWithRefresh } from "@/api/session";
 
 const authServer = import.meta.env.VITE_AUTH_URL;
 const SERVER = import.meta.env.VITE_SERVER_URL as string | undefined;
@@ -37,7 +38,7 @@ interface Props {
 
 async function setupDefaultCategories() {
     try {
-        const res = await fetch(`${SERVER}/users/me/categories/defaults`, {
+        const res = await fetchWithRefresh(`${SERVER}/users/me/categories/defaults`, {
             method: "POST",
             mode: "cors",
             credentials: "include",
@@ -9,6 +9,7 @@ import {WheelOfLifeRadar} from "@/components/WheelOfLifeRadar";
 import {getISOWeek} from "date-fns";
 import {CategoryValue} from "@/types/categories";
 import { useNavigate } from "react-router-dom";
+import { fetchWithRefresh } from "@/api/session";
 
 
 const SERVER = import.meta.env.VITE_SERVER_URL as string | undefined;
@@ -72,7 +73,7 @@ export default function ReportPage({ initialData, initialNotes = "", onBack }: R
 
         try {
             setSubmitting(true);
-            const response = await fetch(`${SERVER}/users/me/reports`, {
+            const response = await fetchWithRefresh(`${SERVER}/users/me/reports`, {
                 method: "POST",
                 credentials: "include", // still needed if session-based
                 headers: {
@@ -14,6 +14,7 @@ import {
 } from "@/components/ui/card";
 import { Input } from "@/components/ui/input";
 import { ScrollArea } from "@/components/ui/scroll-area";
+import { fetchWithRefresh } from "@/api/session";
 
 // Type-safe message definition
 type ChatMessage = {
@@ -50,7 +51,7 @@ export default function ResultsPage() {
         setLoading(true);
 
         try {
-            const res = await fetch(`${GENAI_SERVER}/chat`, {
+            const res = await fetchWithRefresh(`${GENAI_SERVER}/chat`, {
                 method: "POST",
                 headers: { "Content-Type": "application/json" },
                 credentials: "include",
@@ -92,7 +93,7 @@ export default function ResultsPage() {
         const fetchFeedback = async () => {
             setLoading(true);
             try {
-                const res = await fetch(`${GENAI_SERVER}/generate-feedback`, {
+                const res = await fetchWithRefresh(`${GENAI_SERVER}/generate-feedback`, {
                     method: "GET",
                     credentials: "include",
                 });
@@ -15,6 +15,7 @@ import {
     DialogTitle,
     DialogTrigger,
 } from "@/components/ui/dialog";
+import { fetchWithRefresh } from "@/api/session";
 
 /**
  * Settings page that shows **exactly four life‑area cards** (Career, Relationships, Health, Other),
@@ -56,7 +57,7 @@ export default function Settings({onBack}: SettingsProps) {
         if (!base) return Promise.reject(new Error('VITE_SERVER_URL not set')) as Promise<T>;
         const url = `${base}${path}`;
         console.log('[Settings] →', opts.method ?? 'GET', url, opts.body ?? '');
-        return fetch(url, {
+        return fetchWithRefresh(url, {
             credentials: 'include',
             headers: {'Content-Type': 'application/json', ...(opts.headers || {})}, ...opts
         })
@@ -2,6 +2,7 @@ package com.opsontherocks.authentication;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 
@@ -14,6 +15,7 @@ import io.swagger.v3.oas.annotations.info.Info;
     info = @Info(title = "Authentication API", version = "1.0", description = "API for user authentication and registration")
 )
 @SpringBootApplication
+@EnableScheduling
 public class AuthenticationApplication {
 
     public static void main(String[] args) {
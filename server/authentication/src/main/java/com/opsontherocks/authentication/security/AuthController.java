@@ -1,5 +1,7 @@
 package com.opsontherocks.authentication.security;
 
+import com.opsontherocks.authentication.token.RefreshTokenService;
+import com.opsontherocks.authentication.user.CustomUserDetailsService;
 import com.opsontherocks.authentication.user.User;
 import com.opsontherocks.authentication.user.UserRepository;
 import io.swagger.v3.oas.annotations.Operation;
@@ -8,12 +10,15 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -28,10 +33,15 @@ import java.util.Collections;
 public class AuthController {
     private final AuthenticationManager authManager;
     private final UserRepository repo;
+    private final CustomUserDetailsService uds;
     private final PasswordEncoder encoder;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokens;
     private final Environment env;
 
+    private static final String ACCESS_COOKIE = "JWT_TOKEN";
+    private static final String REFRESH_COOKIE = "REFRESH_TOKEN";
+
     private boolean isProd() {
         return Arrays.asList(env.getActiveProfiles()).contains("prod");
     }
@@ -42,19 +52,43 @@ public class AuthController {
     }
 
     private ResponseCookie buildCookie(String token, long maxAgeSeconds) {
-        ResponseCookie.ResponseCookieBuilder cb = ResponseCookie.from("JWT_TOKEN", token)
-                .httpOnly(true)
-                .path("/")
-                .maxAge(maxAgeSeconds);
+        return buildCookie(ACCESS_COOKIE, token, maxAgeSeconds);
+    }
 
+    // Parent domain of the deployment, so the access cookie reaches every service; null locally
+    private String parentDomain() {
         if (isRancher()) {
-            cb.secure(true)
-              .sameSite("None")
-              .domain(".opsontherocks.student.k8s.aet.cit.tum.de");
+            return ".opsontherocks.student.k8s.aet.cit.tum.de";
         } else if (isProd()) {
+            return ".54.166.45.176.nip.io";
+        }
+        return null;
+    }
+
+    // Path under which the browser reaches /refresh and /logout
+    private String refreshCookiePath() {
+        return isRancher() ? "/auth" : "/";
+    }
+
+    /**
+     * The access cookie goes to every service under the parent domain. The refresh
+     * cookie is host-only and scoped to the auth service's path, so no other service
+     * ever sees it.
+     */
+    private ResponseCookie buildCookie(String name, String token, long maxAgeSeconds) {
+        boolean refresh = REFRESH_COOKIE.equals(name);
+        ResponseCookie.ResponseCookieBuilder cb = ResponseCookie.from(name, token)
+                .httpOnly(true)
+                .path(refresh ? refreshCookiePath() : "/")
+                .maxAge(maxAgeSeconds);
+
+        String domain = parentDomain();
+        if (domain != null) {
             cb.secure(true)
-              .sameSite("None")
-              .domain(".54.166.45.176.nip.io");
+              .sameSite("None");
+            if (!refresh) {
+                cb.domain(domain);
+            }
         } else {
             cb.secure(false)
               .sameSite("Lax");
@@ -63,29 +97,66 @@ public class AuthController {
         return cb.build();
     }
 
+    // Refresh cookies set before they were scoped live on "/" of the parent domain; left
+    // in place, the browser could keep presenting that rotated-away token first
+    private void clearLegacyRefreshCookie(ResponseEntity.HeadersBuilder<?> response) {
+        String domain = parentDomain();
+        if (domain == null) {
+            return;
+        }
+        response.header(HttpHeaders.SET_COOKIE, ResponseCookie.from(REFRESH_COOKIE, "")
+                .httpOnly(true)
+                .secure(true)
+                .sameSite("None")
+                .path("/")
+                .domain(domain)
+                .maxAge(0)
+                .build()
+                .toString());
+    }
+
+    /**
+     * Issues a fresh access token plus a new refresh token for the user.
+     * The access cookie is always the first Set-Cookie header.
+     */
+    private ResponseEntity.BodyBuilder withTokens(ResponseEntity.BodyBuilder response, String email) {
+        String token = jwtUtil.generateToken(email, uds.displayName(email));
+        String refreshToken = refreshTokens.issue(email);
+        return withTokens(response, token, refreshToken);
+    }
+
+    private ResponseEntity.BodyBuilder withTokens(ResponseEntity.BodyBuilder response, String token, String refreshToken) {
+        response.header(HttpHeaders.SET_COOKIE, buildCookie(token, jwtUtil.getValiditySeconds()).toString())
+                .header(HttpHeaders.SET_COOKIE,
+                        buildCookie(REFRESH_COOKIE, refreshToken, refreshTokens.getValiditySeconds()).toString());
+        clearLegacyRefreshCookie(response);
+        return response;
+    }
+
     @Operation(summary = "Health check for the authentication service")
     @GetMapping("/healthCheck")
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Auth service running");
     }
 
+    // An existing account is never logged in from here: that would hand out
+    // a session, refresh token included, to anyone who knows the email
     @Operation(summary = "Register a new user")
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest req) {
-        if (!repo.existsById(req.getEmail())) {
-            User u = User.builder()
-                    .email(req.getEmail())
-                    .password(encoder.encode(req.getPassword()))
-                    .name(req.getName())
-                    .build();
-            repo.save(u);
+        if (repo.existsById(req.getEmail())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Collections.singletonMap("error", "An account with this email already exists"));
         }
+        User u = User.builder()
+                .email(req.getEmail())
+                .password(encoder.encode(req.getPassword()))
+                .name(req.getName())
+                .build();
+        repo.save(u);
+        uds.evict(u.getEmail());
 
-        String token = jwtUtil.generateToken(req.getEmail());
-        ResponseCookie cookie = buildCookie(token, jwtUtil.getValiditySeconds());
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+        return withTokens(ResponseEntity.ok(), req.getEmail())
                 .body("Registration succeeded");
     }
 
@@ -96,11 +167,7 @@ public class AuthController {
             authManager.authenticate(
                     new UsernamePasswordAuthenticationToken(req.getEmail(), req.getPassword())
             );
-            String token = jwtUtil.generateToken(req.getEmail());
-            ResponseCookie cookie = buildCookie(token, jwtUtil.getValiditySeconds());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.SET_COOKIE, cookie.toString())
+            return withTokens(ResponseEntity.ok(), req.getEmail())
                     .body("Login succeeded");
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(401)
@@ -108,12 +175,47 @@ public class AuthController {
         }
     }
 
+    @Operation(summary = "Exchange a refresh token for a new access/refresh token pair")
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.status(401)
+                    .body(Collections.singletonMap("error", "Missing refresh token"));
+        }
+        return refreshTokens.rotate(refreshToken)
+                .<ResponseEntity<?>>map(rotation -> withTokens(ResponseEntity.ok(),
+                        jwtUtil.generateToken(rotation.userEmail(), uds.displayName(rotation.userEmail())),
+                        rotation.token())
+                        .body("Refresh succeeded"))
+                .orElseGet(() -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.status(401)
+                            .header(HttpHeaders.SET_COOKIE, buildCookie(REFRESH_COOKIE, "", 0).toString());
+                    clearLegacyRefreshCookie(response);
+                    return response.body(Collections.singletonMap("error", "Invalid refresh token"));
+                });
+    }
+
     @Operation(summary = "Logout the current user")
     @PostMapping("/logout")
-    public ResponseEntity<String> logout() {
+    public ResponseEntity<String> logout(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokens.revoke(refreshToken);
+        }
         ResponseCookie cookie = buildCookie("", 0);
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header(HttpHeaders.SET_COOKIE, cookie.toString())
-                .body("Logged out successfully");
+                .header(HttpHeaders.SET_COOKIE, buildCookie(REFRESH_COOKIE, "", 0).toString());
+        clearLegacyRefreshCookie(response);
+        return response.body("Logged out successfully");
+    }
+
+    /**
+     * Login and registration fail fast when the password hashing pool is saturated.
+     */
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<?> hashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Collections.singletonMap("error", "Server busy, please retry shortly"));
     }
 }
@@ -48,7 +48,7 @@ public class JwtFilter extends OncePerRequestFilter {
 
         if (jwt != null && jwtUtil.validateToken(jwt)) {
             String username = jwtUtil.extractUsername(jwt);
-            UserDetails ud = uds.loadUserByUsername(username);
+            UserDetails ud = uds.loadPrincipal(username);
             UsernamePasswordAuthenticationToken auth =
                     new UsernamePasswordAuthenticationToken(ud, null, ud.getAuthorities());
             auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
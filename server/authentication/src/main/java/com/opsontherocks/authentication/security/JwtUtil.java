@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 
 /**
@@ -14,6 +15,9 @@ import java.util.Date;
  */
 @Component
 public class JwtUtil {
+    /** Claim holding the user's display name, read by the other services. */
+    public static final String NAME_CLAIM = "name";
+
     @Value("${jwt.secret}")
     private String secret;
     
@@ -33,16 +37,19 @@ public class JwtUtil {
     }
 
 
-    private final long validity = 1000 * 60 * 60 * 24; // 24 h
+    // Short-lived on purpose; clients renew it through /refresh instead of logging in again
+    @Value("${jwt.access-validity:PT15M}")
+    private Duration validity;
 
     /**
-     * Creates a signed JWT token with username as subject.
+     * Creates a signed JWT token with username as subject and the display name as claim.
      */
-    public String generateToken(String username) {
+    public String generateToken(String username, String name) {
         return Jwts.builder()
                 .setSubject(username)
+                .claim(NAME_CLAIM, name)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + validity))
+                .setExpiration(new Date(System.currentTimeMillis() + validity.toMillis()))
                 .signWith(key)
                 .compact();
     }
@@ -54,6 +61,13 @@ public class JwtUtil {
         return parse(token).getBody().getSubject();
     }
 
+    /**
+     * Extracts the display name, or null for tokens issued without one.
+     */
+    public String extractName(String token) {
+        return parse(token).getBody().get(NAME_CLAIM, String.class);
+    }
+
     /**
      * Validates a JWT token’s signature and expiration.
      */
@@ -71,6 +85,6 @@ public class JwtUtil {
     }
 
     public long getValiditySeconds() {
-        return validity / 1000;
+        return validity.toSeconds();
     }
 }
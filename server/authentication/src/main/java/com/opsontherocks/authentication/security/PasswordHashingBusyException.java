@@ -0,0 +1,19 @@
+package com.opsontherocks.authentication.security;
+
+/**
+ * Thrown when the password hashing pool cannot accept more work. Mapped to
+ * 503 with a {@code Retry-After} header by {@link AuthController}.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,5 +1,7 @@
 package com.opsontherocks.authentication.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +20,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.springframework.security.config.Customizer.withDefaults;
@@ -84,7 +87,8 @@ public class SecurityConfig implements WebMvcConfigurer {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/register", "/login", "/logout", "/healthCheck").permitAll()
+                        .requestMatchers("/register", "/login", "/refresh", "/logout", "/healthCheck").permitAll()
+                        .requestMatchers("/actuator/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
@@ -101,10 +105,23 @@ public class SecurityConfig implements WebMvcConfigurer {
     }
 
     /**
-     * Password encoder bean using BCrypt.
+     * Password encoder bean using BCrypt, run on a bounded pool so that login
+     * bursts cannot occupy every request thread.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${auth.bcrypt.strength:10}") int strength,
+                                           @Value("${auth.bcrypt.pool-size:0}") int poolSize,
+                                           @Value("${auth.bcrypt.queue-capacity:64}") int queueCapacity,
+                                           @Value("${auth.bcrypt.max-wait:PT5S}") Duration maxWait,
+                                           @Value("${auth.bcrypt.retry-after-seconds:2}") long retryAfterSeconds) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(strength),
+                threads,
+                queueCapacity,
+                maxWait,
+                retryAfterSeconds,
+                meterRegistry);
     }
 }
@@ -0,0 +1,136 @@
+package com.opsontherocks.authentication.token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Issues, rotates and revokes refresh tokens. Every successful refresh revokes
+ * the presented token and issues a new one; presenting an already revoked token
+ * is treated as theft and revokes every token of that user. The exception is a
+ * token rotated within the last few seconds: tabs refresh independently, so two
+ * of them presenting the same cookie at once is expected, and each gets a token.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository repo;
+    private final Duration validity;
+    private final Duration reuseGrace;
+
+    /**
+     * A newly issued refresh token together with the user it belongs to.
+     */
+    public record Rotation(String userEmail, String token) {
+    }
+
+    public RefreshTokenService(RefreshTokenRepository repo,
+                               @Value("${jwt.refresh-validity:P14D}") Duration validity,
+                               @Value("${jwt.refresh-reuse-grace:PT10S}") Duration reuseGrace) {
+        this.repo = repo;
+        this.validity = validity;
+        this.reuseGrace = reuseGrace;
+    }
+
+    public long getValiditySeconds() {
+        return validity.toSeconds();
+    }
+
+    /**
+     * Creates a refresh token for the user and returns its raw value.
+     */
+    @Transactional
+    public String issue(String userEmail) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        repo.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .userEmail(userEmail)
+                .expiresAt(Instant.now().plus(validity))
+                .build());
+        return token;
+    }
+
+    /**
+     * Exchanges a valid refresh token for a new one. Returns empty when the token
+     * is unknown, expired or has already been used (outside the reuse grace period).
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String token) {
+        Instant now = Instant.now();
+        Optional<RefreshToken> found = repo.findByTokenHash(hash(token));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RefreshToken current = found.get();
+        if (current.getReplacedAt() != null && current.getReplacedAt().isAfter(now.minus(reuseGrace))
+                && current.getExpiresAt().isAfter(now)) {
+            // Another tab won the race for this token a moment ago. Its successor cannot be
+            // handed out again (only hashes are stored), so this caller gets one of its own.
+            return Optional.of(new Rotation(current.getUserEmail(), issue(current.getUserEmail())));
+        }
+        if (current.getRevokedAt() != null) {
+            log.warn("Reuse of a revoked refresh token for {}, revoking all of the user's tokens", current.getUserEmail());
+            repo.revokeAllByUserEmail(current.getUserEmail(), now);
+            return Optional.empty();
+        }
+        if (!current.isActive(now)) {
+            return Optional.empty();
+        }
+
+        current.setRevokedAt(now);
+        current.setReplacedAt(now);
+        return Optional.of(new Rotation(current.getUserEmail(), issue(current.getUserEmail())));
+    }
+
+    /**
+     * Revokes a single token, e.g. on logout. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String token) {
+        repo.findByTokenHash(hash(token))
+                .filter(t -> t.getRevokedAt() == null)
+                .ifPresent(t -> t.setRevokedAt(Instant.now()));
+    }
+
+    /**
+     * Drops tokens that expired more than a day ago; revoked ones are kept until
+     * then so that reuse can still be detected.
+     */
+    @Scheduled(cron = "${jwt.refresh-cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = repo.deleteExpiredBefore(Instant.now().minus(Duration.ofDays(1)));
+        if (removed > 0) {
+            log.info("Removed {} expired refresh tokens", removed);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
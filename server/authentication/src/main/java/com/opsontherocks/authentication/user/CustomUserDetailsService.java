@@ -1,27 +1,111 @@
 package com.opsontherocks.authentication.user;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Collections;
 
+/**
+ * Loads users for Spring Security. Login always reads the user from the database,
+ * while authenticated requests go through a bounded TTL cache so that a valid
+ * token does not cost a {@code findByEmail} round trip on every call.
+ */
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
+
+    /**
+     * Where {@link #loadPrincipal(String)} takes the principal from.
+     */
+    public enum PrincipalSource {
+        /** Cached user row, including the password hash. */
+        DATABASE,
+        /** Subject of the verified token only; no database access at all. */
+        CLAIMS
+    }
+
     private final UserRepository repo;
+    private final PrincipalSource principalSource;
+    private final Cache<String, CachedUser> cache;
+
+    public CustomUserDetailsService(UserRepository repo,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${auth.principal-source:database}") PrincipalSource principalSource,
+                                    @Value("${auth.user-cache.max-size:10000}") long maxSize,
+                                    @Value("${auth.user-cache.ttl:PT5M}") Duration ttl) {
+        this.repo = repo;
+        this.principalSource = principalSource;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user_details");
+    }
 
+    /**
+     * Used by the authentication manager on login. Always reads the current
+     * password hash and refreshes the cache entry with it.
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        CachedUser user = fetch(email);
+        cache.put(email, user);
+        return user.toUserDetails();
+    }
+
+    /**
+     * Resolves the principal for a request that carries an already verified token.
+     */
+    public UserDetails loadPrincipal(String email) throws UsernameNotFoundException {
+        if (principalSource == PrincipalSource.CLAIMS) {
+            return new CachedUser(email, "", null).toUserDetails();
+        }
+        return cache.get(email, this::fetch).toUserDetails();
+    }
+
+    /**
+     * Display name for the access token. Served from the same cache, which login
+     * has just refreshed, so issuing a token normally costs no extra query.
+     */
+    public String displayName(String email) throws UsernameNotFoundException {
+        return cache.get(email, this::fetch).name();
+    }
+
+    /**
+     * Drops the cached entry, e.g. after registration or a password change.
+     */
+    public void evict(String email) {
+        cache.invalidate(email);
+    }
+
+    private CachedUser fetch(String email) {
         User user = repo.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("No user: " + email));
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-        );
+        return new CachedUser(user.getEmail(), user.getPassword(), user.getName());
+    }
+
+    /**
+     * Immutable snapshot of a user row. A fresh {@link UserDetails} is built from it
+     * on every call because Spring Security erases credentials on the instances it
+     * hands out, which would otherwise corrupt the cached entry.
+     */
+    private record CachedUser(String email, String passwordHash, String name) {
+
+        UserDetails toUserDetails() {
+            return new org.springframework.security.core.userdetails.User(
+                    email,
+                    passwordHash,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+            );
+        }
     }
 }
@@ -0,0 +1,24 @@
+-- Schema of the authentication service. Every statement is idempotent so that
+-- databases previously managed by ddl-auto=update are brought up to date as well.
+
+-- The primary key serves UserRepository.findByEmail
+CREATE TABLE IF NOT EXISTS users (
+    email    varchar(255) NOT NULL PRIMARY KEY,
+    name     varchar(255) NOT NULL,
+    password varchar(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_hash varchar(64)                 NOT NULL,
+    user_email varchar(255)                NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL,
+    revoked_at timestamp(6) with time zone
+);
+
+-- RefreshTokenRepository.findByTokenHash
+CREATE UNIQUE INDEX IF NOT EXISTS ux_refresh_tokens_token_hash ON refresh_tokens (token_hash);
+-- RefreshTokenRepository.revokeAllByUserEmail
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_email ON refresh_tokens (user_email);
+-- RefreshTokenRepository.deleteExpiredBefore
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
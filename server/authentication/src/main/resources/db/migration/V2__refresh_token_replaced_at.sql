@@ -0,0 +1,3 @@
+-- When a refresh token was rotated, so that a concurrent refresh with the same
+-- token shortly afterwards is not mistaken for reuse of a stolen one
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS replaced_at timestamp(6) with time zone;
@@ -5,8 +5,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.opsontherocks.authentication.security.JwtUtil;
 import com.opsontherocks.authentication.security.LoginRequest;
 import com.opsontherocks.authentication.security.RegisterRequest;
+import com.opsontherocks.authentication.token.RefreshTokenRepository;
 import com.opsontherocks.authentication.user.User;
 import com.opsontherocks.authentication.user.UserRepository;
+import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,7 +20,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -41,6 +45,8 @@ class AuthenticationTest {
     ObjectMapper mapper;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    RefreshTokenRepository refreshTokenRepository;
 
     @BeforeEach
     void clean() {
@@ -72,6 +78,29 @@ class AuthenticationTest {
                 .get("token").asText())).isTrue();
     }
 
+    @Test
+    void registerShouldRejectExistingAccountWithoutIssuingTokens() throws Exception {
+        userRepository.save(User.builder()
+                .email("taken@bar.com")
+                .password(passwordEncoder.encode("original"))
+                .name("Original")
+                .build());
+
+        var req = new RegisterRequest();
+        req.setEmail("taken@bar.com");
+        req.setPassword("guess");
+        req.setName("Intruder");
+
+        mockMvc.perform(post("/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isConflict())
+                .andExpect(header().doesNotExist("Set-Cookie"));
+
+        assertThat(passwordEncoder.matches("original",
+                userRepository.findByEmail("taken@bar.com").orElseThrow().getPassword())).isTrue();
+    }
+
     @Test
     void loginShouldSetJwtCookieAndValidateToken() throws Exception {
         // seed a user
@@ -101,6 +130,7 @@ class AuthenticationTest {
 
         assertThat(jwtUtil.validateToken(token)).isTrue();
         assertThat(jwtUtil.extractUsername(token)).isEqualTo("a@b.com");
+        assertThat(jwtUtil.extractName(token)).isEqualTo("AB");
     }
 
     @Test
@@ -138,4 +168,81 @@ class AuthenticationTest {
                 .andExpect(header().string("Set-Cookie",
                         containsString("Path=/")));
     }
+
+    @Test
+    void refreshShouldRotateTokensAndRejectReuse() throws Exception {
+        var user = User.builder()
+                .email("r@t.com")
+                .password(passwordEncoder.encode("pw"))
+                .name("RT")
+                .build();
+        userRepository.save(user);
+
+        var login = new LoginRequest();
+        login.setEmail("r@t.com");
+        login.setPassword("pw");
+
+        List<String> loginCookies = mockMvc.perform(post("/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(login)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeaders("Set-Cookie");
+        String refreshToken = cookieValue(loginCookies, "REFRESH_TOKEN");
+
+        List<String> refreshed = mockMvc.perform(post("/refresh")
+                        .cookie(new Cookie("REFRESH_TOKEN", refreshToken)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeaders("Set-Cookie");
+
+        assertThat(jwtUtil.extractUsername(cookieValue(refreshed, "JWT_TOKEN"))).isEqualTo("r@t.com");
+        assertThat(cookieValue(refreshed, "REFRESH_TOKEN")).isNotEqualTo(refreshToken);
+
+        // a second tab refreshing with the same token right away gets a token of its own
+        List<String> concurrent = mockMvc.perform(post("/refresh")
+                        .cookie(new Cookie("REFRESH_TOKEN", refreshToken)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeaders("Set-Cookie");
+        assertThat(cookieValue(concurrent, "REFRESH_TOKEN"))
+                .isNotIn(refreshToken, cookieValue(refreshed, "REFRESH_TOKEN"));
+
+        // once the grace period is over, the rotated-away token is treated as stolen
+        refreshTokenRepository.findAll().stream()
+                .filter(t -> t.getReplacedAt() != null)
+                .forEach(t -> t.setReplacedAt(t.getReplacedAt().minus(Duration.ofMinutes(1))));
+        mockMvc.perform(post("/refresh")
+                        .cookie(new Cookie("REFRESH_TOKEN", refreshToken)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refreshCookieShouldBeHostOnly() throws Exception {
+        var user = User.builder()
+                .email("h@o.com")
+                .password(passwordEncoder.encode("pw"))
+                .name("HO")
+                .build();
+        userRepository.save(user);
+
+        var login = new LoginRequest();
+        login.setEmail("h@o.com");
+        login.setPassword("pw");
+
+        String refreshCookie = mockMvc.perform(post("/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(login)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeaders("Set-Cookie").stream()
+                .filter(h -> h.startsWith("REFRESH_TOKEN="))
+                .findFirst().orElseThrow();
+
+        assertThat(refreshCookie).contains("HttpOnly").doesNotContain("Domain=");
+    }
+
+    private static String cookieValue(List<String> setCookieHeaders, String name) {
+        return setCookieHeaders.stream()
+                .map(h -> h.split(";")[0].trim())
+                .filter(s -> s.startsWith(name + "="))
+                .map(s -> s.substring(name.length() + 1))
+                .findFirst().orElseThrow();
+    }
 }
@@ -0,0 +1,133 @@
+// Calls the user and refresh-token finders against the migrated schema, captures the SQL Hibernate
+// generates for each through a StatementInspector, and checks that indexes serve every statement
+package com.opsontherocks.authentication;
+
+import com.opsontherocks.authentication.token.RefreshToken;
+import com.opsontherocks.authentication.token.RefreshTokenRepository;
+import com.opsontherocks.authentication.user.User;
+import com.opsontherocks.authentication.user.UserRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(UserSchemaIndexTest.Config.class)
+class UserSchemaIndexTest {
+
+    private static final String EMAIL = "user-7@example.com";
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingInspector recordingInspector() {
+            return new RecordingInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector(RecordingInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    // Sees every statement Hibernate prepares, before the JDBC driver does
+    static class RecordingInspector implements StatementInspector {
+
+        private final List<String> sql = new ArrayList<>();
+        private boolean recording;
+
+        @Override
+        public String inspect(String statement) {
+            if (recording) {
+                sql.add(statement);
+            }
+            return statement;
+        }
+
+        List<String> record(Runnable call) {
+            sql.clear();
+            recording = true;
+            try {
+                call.run();
+            } finally {
+                recording = false;
+            }
+            return List.copyOf(sql);
+        }
+    }
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    RecordingInspector inspector;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < 50; i++) {
+            String email = "user-" + i + "@example.com";
+            userRepository.save(User.builder().email(email).password("hash").name("User " + i).build());
+            refreshTokenRepository.save(RefreshToken.builder()
+                    .tokenHash(String.format("%064d", i))
+                    .userEmail(email)
+                    .expiresAt(Instant.now().plusSeconds(i))
+                    .build());
+        }
+        userRepository.flush();
+        refreshTokenRepository.flush();
+    }
+
+    @Test
+    void findersShouldNotScanWholeTables() {
+        assertIndexed("UserRepository.findByEmail", () -> userRepository.findByEmail(EMAIL));
+        assertIndexed("RefreshTokenRepository.findByTokenHash",
+                () -> refreshTokenRepository.findByTokenHash(String.format("%064d", 7)));
+        assertIndexed("RefreshTokenRepository.revokeAllByUserEmail",
+                () -> refreshTokenRepository.revokeAllByUserEmail(EMAIL, Instant.now()));
+        assertIndexed("RefreshTokenRepository.deleteExpiredBefore",
+                () -> refreshTokenRepository.deleteExpiredBefore(Instant.parse("2020-01-01T00:00:00Z")));
+    }
+
+    private void assertIndexed(String finder, Runnable call) {
+        List<String> statements = inspector.record(call);
+        assertThat(statements).as(finder).isNotEmpty();
+        for (String sql : statements) {
+            assertThat(plan(sql)).as(finder + ": " + sql).doesNotContain("tableScan");
+        }
+    }
+
+    // H2 plans a statement when it is prepared, so binding NULLs only satisfies EXPLAIN
+    private String plan(String sql) {
+        return jdbc.execute("EXPLAIN " + sql, (PreparedStatement statement) -> {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package com.opsontherocks.benchmarks;
+
+import com.opsontherocks.authentication.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing cost of the authentication service, paid on every login and refresh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class AuthenticationJwtBenchmark {
+
+    private JwtUtil jwtUtil;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", Tokens.SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "validity", Duration.ofMinutes(15));
+        jwtUtil.init();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(Tokens.EMAIL, "Benchmark User");
+    }
+}
@@ -0,0 +1,74 @@
+package com.opsontherocks.benchmarks;
+
+import com.opsontherocks.wheel_of_life.security.JwtFilter;
+import com.opsontherocks.wheel_of_life.security.JwtUtil;
+import com.opsontherocks.wheel_of_life.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The wheel-of-life JwtFilter on one request, from reading the cookie or header to
+ * setting the security context. "cached" is the steady state of a signed-in user;
+ * "uncached" is the first request with a token, or every request once the cache is full.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class JwtFilterBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) -> {
+    };
+
+    @Param({"cookie", "header"})
+    public String source;
+
+    @Param({"cached", "uncached"})
+    public String cache;
+
+    private JwtFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", Tokens.SECRET);
+        jwtUtil.init();
+        long maxSize = cache.equals("cached") ? 10_000 : 0;
+        filter = new JwtFilter(new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), maxSize, Duration.ofMinutes(5)));
+
+        String token = Tokens.sign("none");
+        request = new MockHttpServletRequest("GET", "/users/me/reports");
+        if (source.equals("cookie")) {
+            request.setCookies(new Cookie("JWT_TOKEN", token));
+        } else {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    // Goes through OncePerRequestFilter.doFilter, which only adds an attribute check around doFilterInternal
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        try {
+            filter.doFilter(request, response, CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.opsontherocks.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of reports as GET /users/me/reports and
+ * /users/me/reports/{year}/{week} write them: one report, or a year of reports,
+ * each with eight scores, a paragraph of notes and a chat of the given length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ReportSerializationBenchmark {
+
+    private static final List<String> CATEGORIES = List.of(
+            "Career", "Finances", "Growth", "Health", "Family", "Friends", "Romance", "Fun");
+
+    // A typical exchange: short user answers, longer assistant replies
+    private static final String USER_MESSAGE = "Work was busy, but I managed to go running twice and call my parents.";
+    private static final String AI_MESSAGE = ("That sounds like a week where you protected the things that matter to you. "
+            + "What helped you make time for running, and how could you keep that going next week? ").repeat(2);
+
+    @Param({"0", "10", "40"})
+    public int chatMessages;
+
+    @Param({"1", "52"})
+    public int reports;
+
+    private ObjectMapper objectMapper;
+    private Object payload;
+
+    @Setup
+    public void setup() {
+        // Configured like the ObjectMapper Spring Boot builds for the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Report> list = new ArrayList<>();
+        for (int week = 1; week <= reports; week++) {
+            list.add(report(week));
+        }
+        payload = reports == 1 ? list.get(0) : list;
+    }
+
+    private Report report(int week) {
+        Report report = new Report(week, 2025, Tokens.EMAIL);
+        report.setId((long) week);
+        report.setVersion(3L);
+        report.setNotes("Felt more balanced than last week. Slept better, less overtime, still not enough time with friends.");
+        Map<String, Float> scores = new LinkedHashMap<>();
+        for (int i = 0; i < CATEGORIES.size(); i++) {
+            scores.put(CATEGORIES.get(i), 4.0f + (week + i) % 6);
+        }
+        report.setScores(scores);
+        report.setChat(new ArrayList<>());
+        for (int i = 0; i < chatMessages; i++) {
+            boolean fromUser = i % 2 == 1;
+            ChatMessage message = new ChatMessage(fromUser ? USER_MESSAGE : AI_MESSAGE,
+                    fromUser ? ChatMessage.Sender.USER : ChatMessage.Sender.AI);
+            message.setId((long) week * 1000 + i);
+            report.addMessage(message);
+        }
+        return report;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+}
@@ -0,0 +1,42 @@
+package com.opsontherocks.benchmarks;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tokens shaped like the ones the authentication service issues, signed with a
+ * fixed benchmark secret.
+ */
+final class Tokens {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+    static final String EMAIL = "benchmark@example.com";
+
+    private Tokens() {
+    }
+
+    private static String signWith(List<Map<String, String>> authorities) {
+        var builder = Jwts.builder()
+                .setSubject(EMAIL)
+                .claim("name", "Benchmark User")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000));
+        if (authorities != null) {
+            builder.claim("authorities", authorities);
+        }
+        return builder.signWith(Keys.hmacShaKeyFor(SECRET.getBytes())).compact();
+    }
+
+    // "none" is what the authentication service issues today; the filter falls back to ROLE_USER
+    static String sign(String authorities) {
+        return switch (authorities) {
+            case "none" -> signWith(null);
+            case "two" -> signWith(List.of(Map.of("authority", "ROLE_USER"), Map.of("authority", "ROLE_ADMIN")));
+            default -> throw new IllegalArgumentException(authorities);
+        };
+    }
+}
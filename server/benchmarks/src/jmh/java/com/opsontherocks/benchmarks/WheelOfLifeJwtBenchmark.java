@@ -0,0 +1,46 @@
+package com.opsontherocks.benchmarks;
+
+import com.opsontherocks.wheel_of_life.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token checks the wheel-of-life service runs on every request that misses the
+ * verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class WheelOfLifeJwtBenchmark {
+
+    @Param({"none", "two"})
+    public String authorities;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", Tokens.SECRET);
+        jwtUtil.init();
+        token = Tokens.sign(authorities);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> extractAuthorities() {
+        return jwtUtil.extractAuthorities(token);
+    }
+}
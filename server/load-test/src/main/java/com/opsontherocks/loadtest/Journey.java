@@ -0,0 +1,113 @@
+package com.opsontherocks.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.WeekFields;
+
+/**
+ * What a new user does in the client: register, log in, get the default categories,
+ * open this week's report, autosave it a few times while filling it in, then look
+ * at the history. Every call is timed and recorded under its endpoint.
+ */
+final class Journey {
+
+    private static final String PASSWORD = "load-test-password";
+
+    private final HttpClient http;
+    private final ServiceProcess auth;
+    private final ServiceProcess wheelOfLife;
+    private final Stats stats;
+    private final int autosaves;
+    private final Duration thinkTime;
+
+    Journey(HttpClient http, ServiceProcess auth, ServiceProcess wheelOfLife, Stats stats,
+            int autosaves, Duration thinkTime) {
+        this.http = http;
+        this.auth = auth;
+        this.wheelOfLife = wheelOfLife;
+        this.stats = stats;
+        this.autosaves = autosaves;
+        this.thinkTime = thinkTime;
+    }
+
+    /** Runs the journey for a new user; stops at the first step a later one depends on failing. */
+    void run(String email) throws InterruptedException {
+        String credentials = """
+                {"email": "%s", "password": "%s", "name": "Load Test"}""".formatted(email, PASSWORD);
+        if (call("POST /register", post(auth.uri("/register"), null, credentials)) == null) {
+            return;
+        }
+        HttpResponse<Void> login = call("POST /login", post(auth.uri("/login"), null, credentials));
+        String token = login != null ? accessToken(login) : null;
+        if (token == null) {
+            return;
+        }
+
+        call("POST /users/me/categories/defaults", post(wheelOfLife.uri("/users/me/categories/defaults"), token, ""));
+        pause();
+        call("POST /users/me/reports/this-week", post(wheelOfLife.uri("/users/me/reports/this-week"), token, ""));
+
+        // The same week the service just created, like the client's autosave
+        LocalDate today = LocalDate.now();
+        int week = today.get(WeekFields.ISO.weekOfWeekBasedYear());
+        int year = today.get(WeekFields.ISO.weekBasedYear());
+        for (int i = 1; i <= autosaves; i++) {
+            pause();
+            call("POST /users/me/reports (autosave)", post(wheelOfLife.uri("/users/me/reports"), token, """
+                    {"calendarWeek": %d, "year": %d, "notes": "Draft %d of this week's reflection",
+                     "scores": {"Career": %d.0, "Family": 7.5, "Health": 5.0}}""".formatted(week, year, i, i % 10)));
+        }
+
+        pause();
+        call("GET /users/me/reports", HttpRequest.newBuilder(wheelOfLife.uri("/users/me/reports"))
+                .header("Cookie", "JWT_TOKEN=" + token)
+                .GET()
+                .build());
+    }
+
+    // Returns the response when it was successful, null otherwise
+    private HttpResponse<Void> call(String endpoint, HttpRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<Void> response = null;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            // Counted as an error below
+        }
+        boolean ok = response != null && response.statusCode() / 100 == 2;
+        stats.record(endpoint, System.nanoTime() - start, ok);
+        return ok ? response : null;
+    }
+
+    private void pause() throws InterruptedException {
+        if (!thinkTime.isZero()) {
+            Thread.sleep(thinkTime.toMillis());
+        }
+    }
+
+    private static String accessToken(HttpResponse<?> response) {
+        for (String cookie : response.headers().allValues("Set-Cookie")) {
+            if (cookie.startsWith("JWT_TOKEN=")) {
+                int end = cookie.indexOf(';');
+                return cookie.substring("JWT_TOKEN=".length(), end >= 0 ? end : cookie.length());
+            }
+        }
+        return null;
+    }
+
+    private static HttpRequest post(URI uri, String token, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Cookie", "JWT_TOKEN=" + token);
+        }
+        return builder.build();
+    }
+}
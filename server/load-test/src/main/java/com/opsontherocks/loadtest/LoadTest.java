@@ -0,0 +1,125 @@
+package com.opsontherocks.loadtest;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the authentication and wheel-of-life services on in-memory H2 databases
+ * and drives the new-user journey against them with a fixed number of concurrent
+ * users, first for a warm-up and then for the measured run. Prints throughput,
+ * latency percentiles and error rate per endpoint and writes them to results.csv.
+ *
+ * <p>Run with {@code ./gradlew run} in {@code server/load-test}; tune with
+ * {@code -Dloadtest.users}, {@code .duration}, {@code .warmup}, {@code .autosaves},
+ * {@code .think-time}, {@code .heap}, {@code .bcrypt-strength} and
+ * {@code .max-error-rate}. Exits with 1 when an endpoint's error rate exceeds the maximum.
+ */
+public final class LoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 50);
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("loadtest.warmup", "PT15S"));
+    private static final int AUTOSAVES = Integer.getInteger("loadtest.autosaves", 5);
+    private static final Duration THINK_TIME = Duration.parse(System.getProperty("loadtest.think-time", "PT0.2S"));
+    private static final String HEAP = System.getProperty("loadtest.heap", "512m");
+    private static final String BCRYPT_STRENGTH = System.getProperty("loadtest.bcrypt-strength", "10");
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    // Shared by both services, as in docker-compose
+    private static final String JWT_SECRET = "load-test-secret-load-test-secret-load-test-secret-load-test-secret";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path outputDir = Path.of(System.getProperty("loadtest.output-dir", "build/load-test"));
+        Files.createDirectories(outputDir);
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Stats measured = new Stats();
+        Duration elapsed;
+        try (ServiceProcess auth = ServiceProcess.start("authentication",
+                System.getProperty("loadtest.auth.classpath"),
+                "com.opsontherocks.authentication.AuthenticationApplication",
+                properties("jdbc:h2:mem:authentication;DB_CLOSE_DELAY=-1",
+                        Map.of("auth.bcrypt.strength", BCRYPT_STRENGTH)),
+                HEAP, outputDir);
+             ServiceProcess wheelOfLife = ServiceProcess.start("wheel-of-life",
+                     System.getProperty("loadtest.wheel-of-life.classpath"),
+                     "com.opsontherocks.wheel_of_life.WheelOfLifeApplication",
+                     properties("jdbc:h2:mem:wheel_of_life;DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR,VALUE", Map.of()),
+                     HEAP, outputDir)) {
+            auth.awaitHealthy(http, STARTUP_TIMEOUT);
+            wheelOfLife.awaitHealthy(http, STARTUP_TIMEOUT);
+
+            System.out.printf("%d users, %d autosaves per journey, %s think time, %s warm-up, %s measured%n",
+                    USERS, AUTOSAVES, THINK_TIME, WARMUP, DURATION);
+            drive(http, auth, wheelOfLife, "warmup", WARMUP, new Stats());
+            elapsed = drive(http, auth, wheelOfLife, "run", DURATION, measured);
+        }
+
+        measured.print(System.out, elapsed);
+        Path results = outputDir.resolve("results.csv");
+        measured.writeCsv(results, elapsed);
+        System.out.println("Results written to " + results + ", service logs to " + outputDir);
+
+        if (measured.maxErrorRate() > MAX_ERROR_RATE) {
+            System.err.printf("An endpoint failed %.2f%% of its requests (maximum %.2f%%)%n",
+                    measured.maxErrorRate() * 100, MAX_ERROR_RATE * 100);
+            System.exit(1);
+        }
+    }
+
+    // The schema comes from each service's Flyway migrations, as in the wheel-of-life tests
+    private static Map<String, String> properties(String url, Map<String, String> extra) {
+        Map<String, String> properties = new LinkedHashMap<>(Map.of(
+                "spring.datasource.url", url,
+                "spring.datasource.username", "sa",
+                "spring.datasource.password", "",
+                "spring.jpa.hibernate.ddl-auto", "none",
+                "spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect",
+                "spring.jpa.show-sql", "false",
+                "jwt.secret", JWT_SECRET,
+                "logging.level.root", "WARN"));
+        properties.putAll(extra);
+        return properties;
+    }
+
+    // Closed loop: every user starts a new journey, as a new account, as soon as the last one ends.
+    // Returns the time until the last journey finished, which the throughput is based on
+    private static Duration drive(HttpClient http, ServiceProcess auth, ServiceProcess wheelOfLife,
+                                  String phase, Duration duration, Stats stats) throws InterruptedException {
+        long start = System.nanoTime();
+        Journey journey = new Journey(http, auth, wheelOfLife, stats, AUTOSAVES, THINK_TIME);
+        long deadline = start + duration.toNanos();
+        ExecutorService users = Executors.newFixedThreadPool(USERS);
+        for (int u = 0; u < USERS; u++) {
+            int user = u;
+            users.execute(() -> {
+                try {
+                    for (int i = 0; System.nanoTime() < deadline; i++) {
+                        journey.run(phase + "-" + user + "-" + i + "@load.test");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        users.shutdown();
+        if (!users.awaitTermination(duration.toSeconds() + 120, TimeUnit.SECONDS)) {
+            users.shutdownNow();
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
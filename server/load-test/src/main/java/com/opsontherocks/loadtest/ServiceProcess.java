@@ -0,0 +1,92 @@
+package com.opsontherocks.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One service started as a child JVM from its Gradle runtime classpath, on a free
+ * port. Its output goes to {@code <name>.log} in the output directory.
+ */
+final class ServiceProcess implements AutoCloseable {
+
+    private final String name;
+    private final Process process;
+    private final URI baseUri;
+    private final Path log;
+
+    private ServiceProcess(String name, Process process, int port, Path log) {
+        this.name = name;
+        this.process = process;
+        this.baseUri = URI.create("http://localhost:" + port);
+        this.log = log;
+    }
+
+    static ServiceProcess start(String name, String classpath, String mainClass,
+                                Map<String, String> properties, String heap, Path outputDir) throws IOException {
+        if (classpath == null || classpath.isBlank()) {
+            throw new IllegalStateException("No classpath for " + name + "; start the load test with ./gradlew run");
+        }
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + heap,
+                mainClass,
+                "--server.port=" + port));
+        properties.forEach((key, value) -> command.add("--" + key + "=" + value));
+
+        Path log = outputDir.resolve(name + ".log");
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        // Through the environment rather than -cp, which can exceed the command line limit
+        builder.environment().put("CLASSPATH", classpath);
+        return new ServiceProcess(name, builder.start(), port, log);
+    }
+
+    void awaitHealthy(HttpClient http, Duration timeout) throws IOException, InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(uri("/actuator/health")).GET().build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (http.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(name + " did not become healthy within " + timeout + ", see " + log);
+    }
+
+    URI uri(String path) {
+        return baseUri.resolve(path);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
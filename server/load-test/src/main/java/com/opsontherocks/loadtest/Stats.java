@@ -0,0 +1,99 @@
+package com.opsontherocks.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latencies and errors per endpoint, listed in the order the journey first calls them.
+ */
+final class Stats {
+
+    private final Map<String, Endpoint> endpoints = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    void record(String endpoint, long nanos, boolean ok) {
+        endpoints.computeIfAbsent(endpoint, key -> new Endpoint()).record(nanos, ok);
+    }
+
+    /** Highest error rate of any endpoint, between 0 and 1. */
+    double maxErrorRate() {
+        synchronized (endpoints) {
+            return endpoints.values().stream().mapToDouble(Endpoint::errorRate).max().orElse(0);
+        }
+    }
+
+    void print(PrintStream out, Duration elapsed) {
+        out.printf("%-40s %8s %9s %9s %9s %9s %9s %8s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+        for (Row row : rows(elapsed)) {
+            out.printf(Locale.ROOT, "%-40s %8d %9.1f %9.1f %9.1f %9.1f %9.1f %7.2f%%%n",
+                    row.endpoint, row.requests, row.throughput, row.p50, row.p90, row.p99, row.max, row.errorRate * 100);
+        }
+    }
+
+    void writeCsv(Path file, Duration elapsed) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,requests,requests_per_second,p50_ms,p90_ms,p99_ms,max_ms,error_rate");
+        for (Row row : rows(elapsed)) {
+            lines.add(String.format(Locale.ROOT, "\"%s\",%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.4f",
+                    row.endpoint, row.requests, row.throughput, row.p50, row.p90, row.p99, row.max, row.errorRate));
+        }
+        Files.write(file, lines);
+    }
+
+    private List<Row> rows(Duration elapsed) {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        List<Row> rows = new ArrayList<>();
+        synchronized (endpoints) {
+            endpoints.forEach((endpoint, stats) -> {
+                List<Long> sorted = stats.sortedLatencies();
+                rows.add(new Row(endpoint, sorted.size(), sorted.size() / seconds,
+                        percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                        percentile(sorted, 1.0), stats.errorRate()));
+            });
+        }
+        return rows;
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1_000_000.0;
+    }
+
+    private record Row(String endpoint, int requests, double throughput,
+                       double p50, double p90, double p99, double max, double errorRate) {
+    }
+
+    private static final class Endpoint {
+        private final List<Long> latencies = new ArrayList<>();
+        private long errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            latencies.add(nanos);
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized List<Long> sortedLatencies() {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return sorted;
+        }
+
+        synchronized double errorRate() {
+            return latencies.isEmpty() ? 0 : (double) errors / latencies.size();
+        }
+    }
+}
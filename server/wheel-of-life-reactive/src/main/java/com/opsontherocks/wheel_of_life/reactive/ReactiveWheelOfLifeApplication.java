@@ -0,0 +1,13 @@
+package com.opsontherocks.wheel_of_life.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveWheelOfLifeApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveWheelOfLifeApplication.class, args);
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.opsontherocks.wheel_of_life.reactive.controller;
+
+import com.opsontherocks.wheel_of_life.reactive.dto.ReportView;
+import com.opsontherocks.wheel_of_life.reactive.entity.Category;
+import com.opsontherocks.wheel_of_life.reactive.repository.ReportQueries.VersionRow;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The servlet service's ETags, so a client can revalidate against either stack:
+ * {@code "id-version"} for one entity and, for a list, the MD5 of its
+ * {@code id-version} pairs in id order.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(ReportView report) {
+        return "\"" + valueOf(report.id()) + "-" + valueOf(report.version()) + "\"";
+    }
+
+    static String ofCategories(List<Category> categories) {
+        return ofVersions(categories.stream()
+                .map(category -> new VersionRow(valueOf(category.getId()), valueOf(category.getVersion())))
+                .toList());
+    }
+
+    static String ofVersions(List<VersionRow> versions) {
+        StringJoiner pairs = new StringJoiner(",");
+        versions.stream()
+                .sorted(Comparator.comparingLong(VersionRow::id))
+                .forEach(version -> pairs.add(version.id() + "-" + version.version()));
+        return "\"" + DigestUtils.md5DigestAsHex(pairs.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,66 @@
+package com.opsontherocks.wheel_of_life.reactive.controller;
+
+import com.opsontherocks.wheel_of_life.reactive.dto.ReportView;
+import com.opsontherocks.wheel_of_life.reactive.entity.Category;
+import com.opsontherocks.wheel_of_life.reactive.repository.CategoryRepository;
+import com.opsontherocks.wheel_of_life.reactive.service.ReportStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Read-only, non-blocking variant of the servlet service's {@code /users/me}
+ * report and category endpoints, with the same paths and JSON. Writes stay on
+ * the servlet service, which owns the schema.
+ */
+@RestController
+@RequestMapping("/users/me")
+@PreAuthorize("isAuthenticated()")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReportStreamService reportService;
+    private final CategoryRepository categoryRepository;
+
+    // --- Categories ---
+    // A user has a handful of categories, so the list is collected to tag it like the servlet service does
+    @GetMapping("/categories")
+    public Mono<ResponseEntity<List<Category>>> findAll(@AuthenticationPrincipal String email) {
+        return categoryRepository.findByUserEmail(email)
+                .collectList()
+                .map(categories -> ResponseEntity.ok().eTag(ETags.ofCategories(categories)).body(categories));
+    }
+
+    // --- Reports ---
+    // Streamed as a JSON array, or one report per line with Accept: application/x-ndjson.
+    // Written as the client reads, so a slow connection costs neither a thread nor the whole list in memory.
+    // Tagged from the (id, version) pairs alone; on a matching If-None-Match WebFlux answers 304
+    // and the stream is never subscribed to
+    @GetMapping(value = "/reports", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<ReportView>>> getAllReports(@AuthenticationPrincipal String email) {
+        return reportService.findVersions(email)
+                .map(versions -> ResponseEntity.ok()
+                        .eTag(ETags.ofVersions(versions))
+                        .body(reportService.streamByUserEmail(email)));
+    }
+
+    // If-None-Match is checked against the ETag by WebFlux and answered with 304
+    @GetMapping("/reports/{year}/{week}")
+    public Mono<ResponseEntity<ReportView>> getReport(@PathVariable int year,
+                                                      @PathVariable int week,
+                                                      @AuthenticationPrincipal String email) {
+        return reportService.getByWeekAndYear(email, week, year)
+                .map(report -> ResponseEntity.ok().eTag(ETags.of(report)).body(report))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
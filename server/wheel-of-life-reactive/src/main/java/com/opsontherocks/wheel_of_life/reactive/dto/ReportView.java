@@ -0,0 +1,21 @@
+package com.opsontherocks.wheel_of_life.reactive.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A report with its scores and chat, in the same JSON shape as the
+ * wheel-of-life service's Report entity.
+ */
+public record ReportView(Long id,
+                         Long version,
+                         Integer calendarWeek,
+                         Integer year,
+                         String userEmail,
+                         String notes,
+                         Map<String, Float> scores,
+                         List<ChatMessageView> chat) {
+
+    public record ChatMessageView(Long id, String message, String sender) {
+    }
+}
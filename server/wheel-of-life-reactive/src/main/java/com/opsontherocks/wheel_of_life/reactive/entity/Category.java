@@ -0,0 +1,36 @@
+package com.opsontherocks.wheel_of_life.reactive.entity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Read model of the wheel-of-life service's category table, serialized exactly
+ * like its JPA entity. The group is kept as the stored enum name.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Table("category")
+public class Category {
+
+    @Id
+    private Long id;
+
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    private String name;
+
+    @Column("category_group")
+    private String categoryGroup;
+
+    @Column("user_email")
+    private String userEmail;
+}
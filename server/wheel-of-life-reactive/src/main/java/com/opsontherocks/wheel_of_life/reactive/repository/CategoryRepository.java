@@ -0,0 +1,11 @@
+package com.opsontherocks.wheel_of_life.reactive.repository;
+
+import com.opsontherocks.wheel_of_life.reactive.entity.Category;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+public interface CategoryRepository extends ReactiveCrudRepository<Category, Long> {
+
+    // Served by ux_category_user_name
+    Flux<Category> findByUserEmail(String email);
+}
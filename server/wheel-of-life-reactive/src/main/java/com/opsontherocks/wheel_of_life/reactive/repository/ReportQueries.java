@@ -0,0 +1,118 @@
+package com.opsontherocks.wheel_of_life.reactive.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Row-level queries over the report tables. Every query runs on its own pooled
+ * connection and releases it as soon as its rows are read, so a slow client never
+ * keeps a connection checked out.
+ */
+@Repository
+public class ReportQueries {
+
+    // Keyset page ordered by (year, calendar_week), served by ux_report_user_year_week
+    private static final String PAGE = """
+            SELECT id, version, calendar_week, year, user_email, notes FROM report
+            WHERE user_email = :email
+              AND (year > :afterYear OR (year = :afterYear AND calendar_week > :afterWeek))
+            ORDER BY year, calendar_week
+            LIMIT :limit
+            """;
+
+    private static final String BY_WEEK = """
+            SELECT id, version, calendar_week, year, user_email, notes FROM report
+            WHERE user_email = :email AND year = :year AND calendar_week = :week
+            """;
+
+    // Backs the ETag of the whole list; served by ux_report_user_year_week
+    private static final String VERSIONS = "SELECT id, version FROM report WHERE user_email = :email";
+
+    private static final String SCORES =
+            "SELECT report_id, category_name, score FROM report_scores WHERE report_id IN (:ids)";
+
+    // Served by idx_chat_message_report_id
+    private static final String CHAT =
+            "SELECT id, report_id, message, sender FROM chat_message WHERE report_id IN (:ids) ORDER BY report_id, id";
+
+    public record ReportRow(long id, long version, int calendarWeek, int year, String userEmail, String notes) {
+    }
+
+    public record VersionRow(long id, long version) {
+    }
+
+    public record ScoreRow(long reportId, String categoryName, Float score) {
+    }
+
+    public record ChatRow(long id, long reportId, String message, String sender) {
+    }
+
+    private final DatabaseClient db;
+
+    public ReportQueries(DatabaseClient db) {
+        this.db = db;
+    }
+
+    /** Up to {@code limit} reports that come after the given week, in (year, week) order. */
+    public Flux<ReportRow> findPage(String email, int afterYear, int afterWeek, int limit) {
+        return db.sql(PAGE)
+                .bind("email", email)
+                .bind("afterYear", afterYear)
+                .bind("afterWeek", afterWeek)
+                .bind("limit", limit)
+                .map(ReportQueries::reportRow)
+                .all();
+    }
+
+    public Mono<ReportRow> findByWeek(String email, int year, int week) {
+        return db.sql(BY_WEEK)
+                .bind("email", email)
+                .bind("year", year)
+                .bind("week", week)
+                .map(ReportQueries::reportRow)
+                .one();
+    }
+
+    public Flux<VersionRow> findVersions(String email) {
+        return db.sql(VERSIONS)
+                .bind("email", email)
+                .map(row -> new VersionRow(row.get("id", Long.class), row.get("version", Long.class)))
+                .all();
+    }
+
+    public Flux<ScoreRow> findScores(Collection<Long> reportIds) {
+        return db.sql(SCORES)
+                .bind("ids", reportIds)
+                .map(row -> new ScoreRow(
+                        row.get("report_id", Long.class),
+                        row.get("category_name", String.class),
+                        row.get("score", Float.class)))
+                .all();
+    }
+
+    public Flux<ChatRow> findChat(Collection<Long> reportIds) {
+        return db.sql(CHAT)
+                .bind("ids", reportIds)
+                .map(row -> new ChatRow(
+                        row.get("id", Long.class),
+                        row.get("report_id", Long.class),
+                        row.get("message", String.class),
+                        row.get("sender", String.class)))
+                .all();
+    }
+
+    private static ReportRow reportRow(Readable row) {
+        return new ReportRow(
+                row.get("id", Long.class),
+                row.get("version", Long.class),
+                row.get("calendar_week", Integer.class),
+                row.get("year", Integer.class),
+                row.get("user_email", String.class),
+                row.get("notes", String.class));
+    }
+}
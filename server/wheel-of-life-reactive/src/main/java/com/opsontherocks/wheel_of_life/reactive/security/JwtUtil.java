@@ -0,0 +1,66 @@
+package com.opsontherocks.wheel_of_life.reactive.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies the tokens of the authentication service with the same secret and
+ * claims as the servlet service's JwtUtil.
+ */
+@Component
+public class JwtUtil {
+
+    /** Display name claim set by the authentication service. */
+    public static final String NAME_CLAIM = "name";
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        if (secret == null || secret.length() < 64) {
+            throw new IllegalStateException("JWT_SECRET missing or too short (needs ≥64 chars)");
+        }
+        this.parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(secret.getBytes())).build();
+    }
+
+    /**
+     * Checks signature and expiry with a single parse. Throws the usual
+     * {@link io.jsonwebtoken.JwtException} subtypes when the token is invalid or expired.
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get(NAME_CLAIM, String.class),
+                authoritiesFrom(claims),
+                expiration != null ? expiration.toInstant() : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<GrantedAuthority> authoritiesFrom(Claims claims) {
+        List<Map<String, String>> authoritiesMaps = claims.get("authorities", List.class);
+        if (authoritiesMaps == null) {
+            // If no authorities are found, return a default ROLE_USER authority
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        }
+        return authoritiesMaps.stream()
+                .map(map -> new SimpleGrantedAuthority(map.get("authority")))
+                .collect(Collectors.toList());
+    }
+}
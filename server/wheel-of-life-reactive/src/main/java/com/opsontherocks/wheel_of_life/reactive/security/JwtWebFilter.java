@@ -0,0 +1,83 @@
+package com.opsontherocks.wheel_of_life.reactive.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the servlet service's JwtFilter, with the same rules:
+ * a {@code Bearer} Authorization header wins over the {@code JWT_TOKEN} cookie,
+ * the principal is the subject (the user's email), and an invalid or expired
+ * token is logged and the request continues unauthenticated. Registered only
+ * in the security chain, so it is deliberately not a bean.
+ */
+@RequiredArgsConstructor
+public class JwtWebFilter implements WebFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtWebFilter.class);
+
+    /** Exchange attribute holding the display name from the token, when it has one. */
+    public static final String DISPLAY_NAME_ATTRIBUTE = JwtWebFilter.class.getName() + ".displayName";
+
+    private final JwtUtil jwtUtil;
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        String jwt = null;
+        String authorizationHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            jwt = authorizationHeader.substring(7);
+        } else {
+            HttpCookie cookie = exchange.getRequest().getCookies().getFirst("JWT_TOKEN");
+            if (cookie != null) {
+                jwt = cookie.getValue();
+            }
+        }
+
+        VerifiedToken token = null;
+        if (jwt != null) {
+            try {
+                token = jwtUtil.verify(jwt);
+            } catch (ExpiredJwtException e) {
+                logger.warn("JWT token is expired: {}", e.getMessage());
+            } catch (UnsupportedJwtException e) {
+                logger.warn("JWT token is unsupported: {}", e.getMessage());
+            } catch (MalformedJwtException e) {
+                logger.warn("Invalid JWT token: {}", e.getMessage());
+            } catch (SignatureException e) {
+                logger.warn("Invalid JWT signature: {}", e.getMessage());
+            } catch (IllegalArgumentException e) {
+                logger.warn("JWT claims string is empty or invalid: {}", e.getMessage());
+            } catch (Exception e) {
+                logger.error("Unexpected error during JWT processing: {}", e.getMessage(), e);
+            }
+        }
+
+        if (token == null || token.username() == null) {
+            return chain.filter(exchange);
+        }
+
+        if (token.displayName() != null) {
+            exchange.getAttributes().put(DISPLAY_NAME_ATTRIBUTE, token.displayName());
+        }
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                token.username(), null, token.authorities());
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authToken));
+    }
+}
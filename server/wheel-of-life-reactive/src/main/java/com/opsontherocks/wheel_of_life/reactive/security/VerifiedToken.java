@@ -0,0 +1,19 @@
+package com.opsontherocks.wheel_of_life.reactive.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Result of a single signature + expiry check of a JWT. Everything the
+ * filter needs is read from the claims once, so the token never has to be
+ * parsed again for the rest of the request. {@code displayName} is null for
+ * tokens issued before the authentication service added the name claim.
+ */
+public record VerifiedToken(String username, String displayName, List<GrantedAuthority> authorities, Instant expiresAt) {
+
+    public VerifiedToken {
+        authorities = List.copyOf(authorities);
+    }
+}
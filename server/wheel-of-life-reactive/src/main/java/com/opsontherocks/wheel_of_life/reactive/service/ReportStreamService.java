@@ -0,0 +1,95 @@
+package com.opsontherocks.wheel_of_life.reactive.service;
+
+import com.opsontherocks.wheel_of_life.reactive.dto.ReportView;
+import com.opsontherocks.wheel_of_life.reactive.dto.ReportView.ChatMessageView;
+import com.opsontherocks.wheel_of_life.reactive.repository.ReportQueries;
+import com.opsontherocks.wheel_of_life.reactive.repository.ReportQueries.ChatRow;
+import com.opsontherocks.wheel_of_life.reactive.repository.ReportQueries.ReportRow;
+import com.opsontherocks.wheel_of_life.reactive.repository.ReportQueries.ScoreRow;
+import com.opsontherocks.wheel_of_life.reactive.repository.ReportQueries.VersionRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ReportStreamService {
+
+    private final ReportQueries queries;
+    private final int pageSize;
+
+    public ReportStreamService(ReportQueries queries,
+                               @Value("${reports.stream.page-size:50}") int pageSize) {
+        this.queries = queries;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Streams all of a user's reports in (year, week) order, a keyset page at a
+     * time. Each page costs three queries, and the next one is only read once the
+     * subscriber has taken the current one, so a slow client holds back the
+     * database instead of buffering its whole history in memory.
+     */
+    public Flux<ReportView> streamByUserEmail(String email) {
+        return pagesAfter(email, Integer.MIN_VALUE, 0);
+    }
+
+    public Mono<List<VersionRow>> findVersions(String email) {
+        return queries.findVersions(email).collectList();
+    }
+
+    public Mono<ReportView> getByWeekAndYear(String email, int week, int year) {
+        return queries.findByWeek(email, year, week)
+                .flatMapMany(row -> withDetails(List.of(row)))
+                .next();
+    }
+
+    private Flux<ReportView> pagesAfter(String email, int afterYear, int afterWeek) {
+        return queries.findPage(email, afterYear, afterWeek, pageSize)
+                .collectList()
+                .flatMapMany(rows -> {
+                    if (rows.isEmpty()) {
+                        return Flux.empty();
+                    }
+                    Flux<ReportView> page = withDetails(rows);
+                    if (rows.size() < pageSize) {
+                        return page;
+                    }
+                    ReportRow last = rows.get(rows.size() - 1);
+                    return page.concatWith(Flux.defer(() -> pagesAfter(email, last.year(), last.calendarWeek())));
+                });
+    }
+
+    // Scores and chat of the whole page in one query each
+    private Flux<ReportView> withDetails(List<ReportRow> rows) {
+        List<Long> ids = rows.stream().map(ReportRow::id).toList();
+
+        Mono<Map<Long, Map<String, Float>>> scores = queries.findScores(ids)
+                .collect(HashMap::new, (Map<Long, Map<String, Float>> byReport, ScoreRow score) ->
+                        byReport.computeIfAbsent(score.reportId(), id -> new LinkedHashMap<>())
+                                .put(score.categoryName(), score.score()));
+
+        Mono<Map<Long, List<ChatMessageView>>> chat = queries.findChat(ids)
+                .collect(HashMap::new, (Map<Long, List<ChatMessageView>> byReport, ChatRow message) ->
+                        byReport.computeIfAbsent(message.reportId(), id -> new ArrayList<>())
+                                .add(new ChatMessageView(message.id(), message.message(), message.sender())));
+
+        return Mono.zip(scores, chat).flatMapIterable(details -> rows.stream()
+                .map(row -> new ReportView(
+                        row.id(),
+                        row.version(),
+                        row.calendarWeek(),
+                        row.year(),
+                        row.userEmail(),
+                        row.notes(),
+                        details.getT1().getOrDefault(row.id(), Map.of()),
+                        details.getT2().getOrDefault(row.id(), List.of())))
+                .toList());
+    }
+}
@@ -0,0 +1,197 @@
+package com.opsontherocks.wheel_of_life.reactive;
+
+//Boots the reactive service on an in-memory database and checks that it authenticates like the
+// servlet service, streams reports across page boundaries and serves the same JSON and ETags.
+
+import com.opsontherocks.wheel_of_life.reactive.dto.ReportView;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+public class ReactiveReportsApiTest {
+
+    private static final String EMAIL = "reactive@example.com";
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DatabaseClient db;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @BeforeEach
+    void seed() {
+        for (String table : List.of("chat_message", "report_scores", "report", "category")) {
+            db.sql("DELETE FROM " + table).then().block();
+        }
+        // Five weeks, out of order, so the stream has to sort them and crosses two page boundaries
+        int[][] weeks = {{2025, 3}, {2024, 52}, {2025, 1}, {2025, 2}, {2025, 10}};
+        for (int i = 0; i < weeks.length; i++) {
+            long id = 100 + i;
+            db.sql("INSERT INTO report (id, version, calendar_week, year, user_email, notes) VALUES (:id, :version, :week, :year, :email, :notes)")
+                    .bind("id", id).bind("version", 1L).bind("week", weeks[i][1]).bind("year", weeks[i][0])
+                    .bind("email", EMAIL).bind("notes", "Week " + weeks[i][1])
+                    .then().block();
+            db.sql("INSERT INTO report_scores (report_id, category_name, score) VALUES (:id, 'Health', :score)")
+                    .bind("id", id).bind("score", (float) weeks[i][1])
+                    .then().block();
+        }
+        db.sql("INSERT INTO chat_message (id, message, sender, report_id) VALUES (1, 'How was your week?', 'AI', 102), (2, 'Good.', 'USER', 102)")
+                .then().block();
+        db.sql("INSERT INTO report (id, version, calendar_week, year, user_email) VALUES (200, 0, 1, 2025, 'other@example.com')")
+                .then().block();
+        db.sql("INSERT INTO category (id, version, name, category_group, user_email) VALUES (5, 2, 'Health', 'Health', :email), (6, 0, 'Career', 'Career', :email)")
+                .bind("email", EMAIL)
+                .then().block();
+    }
+
+    private String token(String email, long validityMillis) {
+        return Jwts.builder()
+                .setSubject(email)
+                .claim("name", "Reactive User")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + validityMillis))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+
+    private String token() {
+        return token(EMAIL, 3_600_000);
+    }
+
+    @Test
+    void requestsWithoutValidToken_shouldBeRejected() {
+        client.get().uri("/users/me/reports").exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody(String.class).isEqualTo("You must be logged in");
+
+        client.get().uri("/users/me/reports").cookie("JWT_TOKEN", token(EMAIL, -1_000)).exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void bearerHeader_shouldWinOverTheCookie() {
+        client.get().uri("/users/me/categories")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                .cookie("JWT_TOKEN", "not-a-token")
+                .exchange()
+                .expectStatus().isOk();
+
+        client.get().uri("/users/me/categories")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token")
+                .cookie("JWT_TOKEN", token())
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void streamedReports_shouldCoverEveryPageInWeekOrder() {
+        List<ReportView> reports = client.get().uri("/users/me/reports")
+                .cookie("JWT_TOKEN", token())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ReportView.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(reports);
+        assertEquals(List.of(52, 1, 2, 3, 10), reports.stream().map(ReportView::calendarWeek).toList());
+        assertTrue(reports.stream().allMatch(report -> EMAIL.equals(report.userEmail())));
+        assertEquals(Map.of("Health", 1.0f), reports.get(1).scores());
+        assertEquals(List.of("How was your week?", "Good."),
+                reports.get(1).chat().stream().map(ReportView.ChatMessageView::message).toList());
+        assertEquals(List.of(), reports.get(0).chat());
+    }
+
+    @Test
+    void reportsAsJsonArray_shouldMatchTheServletShape() {
+        client.get().uri("/users/me/reports")
+                .cookie("JWT_TOKEN", token())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(5)
+                .jsonPath("$[1].id").isEqualTo(102)
+                .jsonPath("$[1].version").isEqualTo(1)
+                .jsonPath("$[1].year").isEqualTo(2025)
+                .jsonPath("$[1].notes").isEqualTo("Week 1")
+                .jsonPath("$[1].scores.Health").isEqualTo(1.0)
+                .jsonPath("$[1].chat[0].sender").isEqualTo("AI");
+    }
+
+    @Test
+    void reportList_shouldBeTaggedAndRevalidatedLikeTheServletService() {
+        // MD5 of "100-1,101-1,102-1,103-1,104-1", the (id, version) pairs in id order
+        String etag = "\"03810adcf9d47dca00475064e71cee13\"";
+        client.get().uri("/users/me/reports")
+                .cookie("JWT_TOKEN", token())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag);
+
+        client.get().uri("/users/me/reports")
+                .cookie("JWT_TOKEN", token())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void singleReport_shouldBeTaggedAndRevalidated() {
+        String etag = client.get().uri("/users/me/reports/2025/1")
+                .cookie("JWT_TOKEN", token())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"102-1\"")
+                .returnResult(ReportView.class)
+                .getResponseHeaders().getETag();
+
+        client.get().uri("/users/me/reports/2025/1")
+                .cookie("JWT_TOKEN", token())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        client.get().uri("/users/me/reports/2025/11")
+                .cookie("JWT_TOKEN", token())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void categories_shouldBeTaggedLikeTheServletService() {
+        client.get().uri("/users/me/categories")
+                .cookie("JWT_TOKEN", token())
+                .exchange()
+                .expectStatus().isOk()
+                // MD5 of "5-2,6-0", the (id, version) pairs in id order
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"475ab6ed9405dc6c2f481a2744511853\"")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[?(@.name == 'Health')].categoryGroup").isEqualTo("Health");
+    }
+}
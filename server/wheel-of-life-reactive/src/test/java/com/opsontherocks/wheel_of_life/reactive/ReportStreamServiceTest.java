@@ -0,0 +1,72 @@
+package com.opsontherocks.wheel_of_life.reactive;
+
+//Unit tests the paged report stream: the next keyset page is only queried once the subscriber
+// has taken the current one, and scores and chat are loaded once per page rather than once per report.
+
+import com.opsontherocks.wheel_of_life.reactive.dto.ReportView;
+import com.opsontherocks.wheel_of_life.reactive.repository.ReportQueries;
+import com.opsontherocks.wheel_of_life.reactive.repository.ReportQueries.ChatRow;
+import com.opsontherocks.wheel_of_life.reactive.repository.ReportQueries.ReportRow;
+import com.opsontherocks.wheel_of_life.reactive.repository.ReportQueries.ScoreRow;
+import com.opsontherocks.wheel_of_life.reactive.service.ReportStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class ReportStreamServiceTest {
+
+    private static final String EMAIL = "stream@example.com";
+
+    @Mock
+    private ReportQueries queries;
+
+    private ReportStreamService service;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        service = new ReportStreamService(queries, 2);
+
+        when(queries.findPage(EMAIL, Integer.MIN_VALUE, 0, 2)).thenReturn(Flux.just(row(1, 2025, 1), row(2, 2025, 2)));
+        when(queries.findPage(EMAIL, 2025, 2, 2)).thenReturn(Flux.just(row(3, 2025, 3)));
+        when(queries.findScores(anyCollection())).thenAnswer(invocation -> Flux.fromIterable(
+                invocation.<List<Long>>getArgument(0)).map(id -> new ScoreRow(id, "Health", id.floatValue())));
+        when(queries.findChat(anyCollection())).thenReturn(Flux.just(new ChatRow(9, 1, "Hi", "AI")));
+    }
+
+    private static ReportRow row(long id, int year, int week) {
+        return new ReportRow(id, 0, week, year, EMAIL, null);
+    }
+
+    @Test
+    void nextPage_shouldOnlyBeQueriedOnDemand() {
+        StepVerifier.create(service.streamByUserEmail(EMAIL), 1)
+                .expectNextCount(1)
+                .then(() -> verify(queries, never()).findPage(EMAIL, 2025, 2, 2))
+                .thenRequest(2)
+                .expectNextCount(1)
+                .expectNextMatches(report -> report.calendarWeek() == 3 && report.scores().equals(Map.of("Health", 3.0f)))
+                .verifyComplete();
+
+        verify(queries).findPage(EMAIL, 2025, 2, 2);
+        verify(queries, times(2)).findScores(anyCollection());
+        verify(queries, times(2)).findChat(anyCollection());
+    }
+
+    @Test
+    void details_shouldBeAttachedToTheirOwnReport() {
+        StepVerifier.create(service.streamByUserEmail(EMAIL).take(2))
+                .expectNextMatches(report -> report.chat().equals(List.of(new ReportView.ChatMessageView(9L, "Hi", "AI"))))
+                .expectNextMatches(report -> report.chat().isEmpty())
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,239 @@
+package com.opsontherocks.wheel_of_life.reactive;
+
+//Compares the servlet and the reactive stack under many slow clients: each one downloads the
+// full report history a small chunk at a time, like a phone on a poor connection, while a probe
+// measures how quickly a fast client is still served. Both services must be running on the same
+// database (docker compose --profile reactive up); reports are seeded through the servlet service.
+// ./gradlew benchmark -Dbenchmark.jwt-secret=$JWT_SECRET, tuned with -Dbenchmark.servlet-url,
+// .reactive-url, .slow-clients, .users, .chunk-bytes, .read-delay and .duration.
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Tag("benchmark")
+public class ServletVsReactiveBenchmark {
+
+    private static final String SECRET = System.getProperty("benchmark.jwt-secret", "");
+    private static final URI SERVLET = URI.create(System.getProperty("benchmark.servlet-url", "http://localhost:8080"));
+    private static final URI REACTIVE = URI.create(System.getProperty("benchmark.reactive-url", "http://localhost:8082"));
+    private static final int SLOW_CLIENTS = Integer.getInteger("benchmark.slow-clients", 1000);
+    private static final int USERS = Integer.getInteger("benchmark.users", 20);
+    private static final int WEEKS = 52;
+    private static final int CHUNK_BYTES = Integer.getInteger("benchmark.chunk-bytes", 1024);
+    private static final Duration READ_DELAY = Duration.parse(System.getProperty("benchmark.read-delay", "PT0.1S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("benchmark.duration", "PT30S"));
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void compareServletAndReactiveUnderSlowClients() throws Exception {
+        assumeTrue(SECRET.length() >= 64, "Pass the services' JWT secret with -Dbenchmark.jwt-secret");
+
+        List<String> tokens = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            tokens.add(token("slow-" + u + "@example.com"));
+        }
+        seed(tokens);
+
+        Result servlet = run(SERVLET, tokens);
+        Result reactive = run(REACTIVE, tokens);
+
+        System.out.printf("%d slow clients reading %d bytes every %s, %d users with %d reports each, %s measured%n",
+                SLOW_CLIENTS, CHUNK_BYTES, READ_DELAY, USERS, WEEKS, DURATION);
+        servlet.print("servlet  " + SERVLET);
+        reactive.print("reactive " + REACTIVE);
+
+        assertTrue(servlet.probes() > 0 && reactive.probes() > 0);
+    }
+
+    // Long notes make the history big enough that a slow reader takes seconds to drain it
+    private void seed(List<String> tokens) throws Exception {
+        String notes = "x".repeat(2000);
+        for (String token : tokens) {
+            send(post(SERVLET.resolve("/users/me/categories/defaults"), token, ""));
+            for (int week = 1; week <= WEEKS; week++) {
+                send(post(SERVLET.resolve("/users/me/reports"), token, """
+                        {"calendarWeek": %d, "year": 2024, "notes": "%s",
+                         "scores": {"Career": 6.0, "Family": 7.5, "Health": 5.0}}
+                        """.formatted(week, notes)));
+            }
+        }
+    }
+
+    private Result run(URI base, List<String> tokens) throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+
+        ExecutorService slow = Executors.newFixedThreadPool(SLOW_CLIENTS);
+        for (int c = 0; c < SLOW_CLIENTS; c++) {
+            String token = tokens.get(c % tokens.size());
+            slow.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    result.slowDownload(() -> readSlowly(base, token));
+                }
+            });
+        }
+
+        // The probe is what an ordinary user would see while the slow downloads are in flight
+        String probeToken = tokens.get(0);
+        while (System.nanoTime() < deadline) {
+            result.probe(() -> send(get(base.resolve("/users/me/categories"), probeToken)));
+        }
+
+        slow.shutdownNow();
+        slow.awaitTermination(60, TimeUnit.SECONDS);
+        return result;
+    }
+
+    // A plain socket with a small receive buffer, so the server really has to wait for the reader
+    private static long readSlowly(URI base, String token) throws IOException, InterruptedException {
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(CHUNK_BYTES);
+            socket.setSoTimeout(60_000);
+            socket.connect(new InetSocketAddress(base.getHost(), base.getPort()), 5_000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /users/me/reports HTTP/1.1\r\n"
+                    + "Host: " + base.getHost() + "\r\n"
+                    + "Cookie: JWT_TOKEN=" + token + "\r\n"
+                    + "Accept: application/json\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            byte[] chunk = new byte[CHUNK_BYTES];
+            byte[] status = new byte[12];
+            int statusLength = in.readNBytes(status, 0, status.length);
+            if (statusLength < status.length || !new String(status, StandardCharsets.US_ASCII).endsWith("200")) {
+                throw new IOException("Unexpected response " + new String(status, 0, statusLength, StandardCharsets.US_ASCII));
+            }
+            long total = statusLength;
+            for (int read; (read = in.read(chunk)) != -1; ) {
+                total += read;
+                Thread.sleep(READ_DELAY.toMillis());
+            }
+            return total;
+        }
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static HttpRequest get(URI uri, String token) {
+        return HttpRequest.newBuilder(uri)
+                .header("Cookie", "JWT_TOKEN=" + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest post(URI uri, String token, String json) {
+        return HttpRequest.newBuilder(uri)
+                .header("Cookie", "JWT_TOKEN=" + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String token(String email) {
+        return Jwts.builder()
+                .setSubject(email)
+                .claim("name", email)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T call() throws Exception;
+    }
+
+    private static final class Result {
+        private final List<Long> probeLatencies = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> downloadTimes = Collections.synchronizedList(new ArrayList<>());
+        private final LongAdder probeErrors = new LongAdder();
+        private final LongAdder downloadErrors = new LongAdder();
+        private final LongAdder downloadedBytes = new LongAdder();
+
+        void probe(Call<Integer> call) {
+            long start = System.nanoTime();
+            try {
+                int status = call.call();
+                if (status != 200) {
+                    probeErrors.increment();
+                }
+            } catch (Exception e) {
+                probeErrors.increment();
+            }
+            probeLatencies.add(System.nanoTime() - start);
+        }
+
+        void slowDownload(Call<Long> call) {
+            long start = System.nanoTime();
+            try {
+                downloadedBytes.add(call.call());
+                downloadTimes.add(System.nanoTime() - start);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                downloadErrors.increment();
+            }
+        }
+
+        long probes() {
+            return probeLatencies.size();
+        }
+
+        void print(String label) {
+            System.out.printf("  %s%n", label);
+            System.out.printf("    probe GET /categories      %6d requests  p50 %8.1f ms  p99 %8.1f ms  %d errors%n",
+                    probes(), percentile(probeLatencies, 0.50), percentile(probeLatencies, 0.99), probeErrors.sum());
+            System.out.printf("    slow GET /reports          %6d completed p50 %8.1f ms  p99 %8.1f ms  %d errors, %.1f MB read%n",
+                    downloadTimes.size(), percentile(downloadTimes, 0.50), percentile(downloadTimes, 0.99),
+                    downloadErrors.sum(), downloadedBytes.sum() / 1_000_000.0);
+        }
+
+        private static double percentile(List<Long> values, double p) {
+            List<Long> sorted;
+            synchronized (values) {
+                sorted = new ArrayList<>(values);
+            }
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            Collections.sort(sorted);
+            int index = (int) Math.ceil(p * sorted.size()) - 1;
+            return sorted.get(Math.max(0, index)) / 1_000_000.0;
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package com.opsontherocks.wheel_of_life;
 
-import com.opsontherocks.wheel_of_life.entity.Category;
-import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
 import com.opsontherocks.wheel_of_life.entity.ChatMessage;
 import com.opsontherocks.wheel_of_life.entity.Report;
 import com.opsontherocks.wheel_of_life.repository.CategoryRepository;
 import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.service.DefaultCategories;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -37,24 +36,7 @@ public class DataInitializer {
     }
 
     private void createDefaultCategoriesForUser(CategoryRepository categoryRepository, String userEmail) {
-        List<Category> existingCategories = categoryRepository.findAll().stream()
-                .filter(cat -> cat.getUserEmail().equals(userEmail))
-                .toList();
-
-        if (existingCategories.isEmpty()) {
-            List<Category> defaultCategories = List.of(
-                    new Category("Finances", CategoryGroup.Career, userEmail),
-                    new Category("Mental Health", CategoryGroup.Health, userEmail),
-                    new Category("Physical Health", CategoryGroup.Health, userEmail),
-                    new Category("Friends", CategoryGroup.Relationships, userEmail),
-                    new Category("Family", CategoryGroup.Relationships, userEmail),
-                    new Category("Romance", CategoryGroup.Relationships, userEmail),
-                    new Category("Growth", CategoryGroup.Career, userEmail),
-                    new Category("Purpose", CategoryGroup.Career, userEmail),
-                    new Category("Social Engagement", CategoryGroup.Other, userEmail),
-                    new Category("Entertainment", CategoryGroup.Other, userEmail)
-            );
-            categoryRepository.saveAll(defaultCategories);
+        if (categoryRepository.insertDefaults(userEmail, DefaultCategories.TEMPLATES) > 0) {
             System.out.println("Created default categories for user: " + userEmail);
         }
     }
@@ -0,0 +1,68 @@
+package com.opsontherocks.wheel_of_life.controller;
+
+import com.opsontherocks.wheel_of_life.entity.Category;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.EntityVersion;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Strong ETags derived from the optimistic-locking versions. A single entity is
+ * {@code "id-version"} ({@code "id-version-gzip"} for a gzipped report); a collection is the MD5 of its {@code id-version} pairs in
+ * id order, so two different lists practically never share a tag. The tags computed
+ * here from loaded entities match the ones built from the repositories' projections.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(EntityVersion version) {
+        return of(version.id(), version.version());
+    }
+
+    // The gzip encoding of a report is a representation of its own, so it gets its own tag
+    static String ofGzip(EntityVersion version) {
+        return "\"" + version.id() + "-" + version.version() + "-gzip\"";
+    }
+
+    static String of(Report report) {
+        return of(report.getId(), report.getVersion());
+    }
+
+    static String of(Category category) {
+        return of(category.getId(), category.getVersion());
+    }
+
+    static String ofVersions(List<EntityVersion> versions) {
+        StringJoiner pairs = new StringJoiner(",");
+        versions.stream()
+                .sorted(Comparator.comparingLong(EntityVersion::id))
+                .forEach(version -> pairs.add(version.id() + "-" + version.version()));
+        return "\"" + DigestUtils.md5DigestAsHex(pairs.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static String ofReports(List<Report> reports) {
+        return ofVersions(reports.stream()
+                .map(report -> new EntityVersion(valueOf(report.getId()), valueOf(report.getVersion())))
+                .toList());
+    }
+
+    static String ofCategories(List<Category> categories) {
+        return ofVersions(categories.stream()
+                .map(category -> new EntityVersion(valueOf(category.getId()), valueOf(category.getVersion())))
+                .toList());
+    }
+
+    private static String of(Long id, Long version) {
+        return "\"" + valueOf(id) + "-" + valueOf(version) + "\"";
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+}
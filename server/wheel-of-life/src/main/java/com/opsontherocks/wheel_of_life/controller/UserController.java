@@ -1,26 +1,47 @@
 package com.opsontherocks.wheel_of_life.controller;
 
+import com.opsontherocks.wheel_of_life.dto.CursorPage;
+import com.opsontherocks.wheel_of_life.dto.ImportResult;
+import com.opsontherocks.wheel_of_life.dto.IsoWeek;
+import com.opsontherocks.wheel_of_life.dto.TrendsResponse;
 import com.opsontherocks.wheel_of_life.entity.Category;
 import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
 import com.opsontherocks.wheel_of_life.entity.ChatMessage;
 import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.EntityVersion;
+import com.opsontherocks.wheel_of_life.security.JwtFilter;
 import com.opsontherocks.wheel_of_life.service.CategoryService;
+import com.opsontherocks.wheel_of_life.service.ChatService;
+import com.opsontherocks.wheel_of_life.service.ReportExportService;
+import com.opsontherocks.wheel_of_life.service.ReportImportService;
 import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.ReportSnapshotCache;
+import com.opsontherocks.wheel_of_life.service.TrendService;
+import com.opsontherocks.wheel_of_life.service.UserNameService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.temporal.WeekFields;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/users/me")
@@ -28,22 +49,38 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class UserController {
 
-    private final JdbcTemplate jdbc;
+    private final UserNameService userNameService;
     private final CategoryService categoryService;
     private final ReportService reportService;
+    private final ReportSnapshotCache reportSnapshots;
+    private final ReportExportService reportExportService;
+    private final ReportImportService reportImportService;
+    private final ChatService chatService;
+    private final TrendService trendService;
 
     // --- User Info ---
+    // Answered from the token's name claim; older tokens fall back to a cached lookup
     @GetMapping
-    public ResponseEntity<String> currentUserName(@AuthenticationPrincipal String email) {
-        String sql = "SELECT name FROM users WHERE email = ?";
-        String name = jdbc.queryForObject(sql, new Object[]{email}, String.class);
-        return ResponseEntity.ok(name);
+    public ResponseEntity<String> currentUserName(
+            @AuthenticationPrincipal String email,
+            @RequestAttribute(name = JwtFilter.DISPLAY_NAME_ATTRIBUTE, required = false) String displayName) {
+        if (displayName != null) {
+            return ResponseEntity.ok(displayName);
+        }
+        return userNameService.findName(email)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     // --- Categories ---
+    // The ETag is computed from the cached list, so a 304 costs no query at all
     @GetMapping("/categories")
-    public ResponseEntity<List<Category>> findAll(@AuthenticationPrincipal String email) {
-        return ResponseEntity.ok(categoryService.getByUserEmail(email));
+    public ResponseEntity<List<Category>> findAll(@AuthenticationPrincipal String email, WebRequest request) {
+        List<Category> categories = categoryService.getByUserEmail(email);
+        if (request.checkNotModified(ETags.ofCategories(categories))) {
+            return null;
+        }
+        return ResponseEntity.ok(categories);
     }
 
     @PostMapping("/categories")
@@ -64,95 +101,320 @@ public class UserController {
         }
 
         category.setUserEmail(email);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(categoryService.add(category));
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(categoryService.add(category));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Category already exists: " + category.getName()));
+        }
     }
 
     @PutMapping("/categories/{id}")
-    public ResponseEntity<Category> update(@PathVariable Long id,
-                                           @RequestBody Category payload,
-                                           @AuthenticationPrincipal String email) {
-        return categoryService.findByIdAndUserEmail(id, email)
-                .map(existing -> {
-                    existing.setName(payload.getName());
-                    return ResponseEntity.ok(categoryService.update(existing));
-                })
-                .orElseGet(() -> ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+    public ResponseEntity<?> update(@PathVariable Long id,
+                                    @RequestBody Category payload,
+                                    @AuthenticationPrincipal String email,
+                                    WebRequest request) {
+        Long expectedVersion = null;
+        if (hasPreconditions(request)) {
+            Optional<EntityVersion> current = categoryService.findVersionForWrite(id, email);
+            if (request.checkNotModified(current.map(ETags::of).orElse(null))) {
+                return null;
+            }
+            expectedVersion = current.map(EntityVersion::version).orElse(null);
+        }
+
+        Optional<Category> renamed;
+        try {
+            renamed = categoryService.rename(id, email, payload.getName(), expectedVersion);
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Category already exists: " + payload.getName()));
+        }
+        if (renamed.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok().eTag(ETags.of(renamed.get())).body(renamed.get());
     }
 
     @DeleteMapping("/categories/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id,
-                                       @AuthenticationPrincipal String email) {
-        categoryService.deleteById(id);
+                                       @AuthenticationPrincipal String email,
+                                       WebRequest request) {
+        Long expectedVersion = null;
+        if (hasPreconditions(request)) {
+            Optional<EntityVersion> current = categoryService.findVersionForWrite(id, email);
+            if (request.checkNotModified(current.map(ETags::of).orElse(null))) {
+                return null;
+            }
+            expectedVersion = current.map(EntityVersion::version).orElse(null);
+        }
+        categoryService.deleteById(id, expectedVersion);
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/categories/defaults")
     public ResponseEntity<?> createDefaultCategories(@AuthenticationPrincipal String email) {
-        List<Category> existingCategories = categoryService.getByUserEmail(email);
-        if (existingCategories.isEmpty()) {
-            List<Category> defaultCategories = List.of(
-                    new Category("Finances", CategoryGroup.Career, email),
-                    new Category("Mental Health", CategoryGroup.Health, email),
-                    new Category("Physical Health", CategoryGroup.Health, email),
-                    new Category("Friends", CategoryGroup.Relationships, email),
-                    new Category("Family", CategoryGroup.Relationships, email),
-                    new Category("Romance", CategoryGroup.Relationships, email),
-                    new Category("Growth", CategoryGroup.Career, email),
-                    new Category("Purpose", CategoryGroup.Career, email),
-                    new Category("Social Engagement", CategoryGroup.Other, email),
-                    new Category("Entertainment", CategoryGroup.Other, email)
-            );
-            for (Category category : defaultCategories) {
-                categoryService.add(category);
-            }
+        if (categoryService.createDefaults(email) > 0) {
             return ResponseEntity.status(HttpStatus.CREATED).build();
         }
         return ResponseEntity.status(HttpStatus.OK).build();
     }
 
     // --- Reports ---
+    // A revalidation is answered from one projection of (id, version); it is read before
+    // the reports, so the ETag sent can only be older than the body, never newer
     @GetMapping("/reports")
-    public ResponseEntity<List<Report>> getAllReports(@AuthenticationPrincipal String email) {
-        return ResponseEntity.ok(reportService.getByUserEmail(email));
+    public ResponseEntity<List<Report>> getAllReports(@AuthenticationPrincipal String email, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(ETags.ofVersions(reportService.findVersions(email)))) {
+            return null;
+        }
+        List<Report> reports = reportService.getByUserEmail(email);
+        return ResponseEntity.ok().eTag(ETags.ofReports(reports)).body(reports);
+    }
+
+    /**
+     * Keyset-paginated report listing, e.g. {@code ?from=2024-W01&to=2025-W30&limit=20},
+     * then {@code ?after=<nextCursor>} for the following pages.
+     */
+    @GetMapping("/reports/page")
+    public ResponseEntity<?> getReportPage(@RequestParam(required = false) String after,
+                                           @RequestParam(required = false) String from,
+                                           @RequestParam(required = false) String to,
+                                           @RequestParam(defaultValue = "" + ReportService.DEFAULT_PAGE_SIZE) int limit,
+                                           @AuthenticationPrincipal String email) {
+        IsoWeek afterWeek;
+        IsoWeek fromWeek;
+        IsoWeek toWeek;
+        try {
+            afterWeek = after != null ? IsoWeek.parse(after) : null;
+            fromWeek = from != null ? IsoWeek.parse(from) : null;
+            toWeek = to != null ? IsoWeek.parse(to) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (limit < 1 || limit > ReportService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Limit must be between 1 and " + ReportService.MAX_PAGE_SIZE));
+        }
+
+        CursorPage<Report> page = reportService.getPage(email, afterWeek, fromWeek, toWeek, limit);
+        return ResponseEntity.ok(page);
     }
 
+    /**
+     * Streams the user's full report history as NDJSON, gzip-compressed when the
+     * client accepts it. Written straight to the response in constant memory.
+     */
+    @GetMapping("/reports/export")
+    public void exportReports(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                              @AuthenticationPrincipal String email,
+                              HttpServletResponse response) throws IOException {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reports.ndjson\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+            reportExportService.export(email, compressed);
+            compressed.finish();
+        } else {
+            reportExportService.export(email, out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Served from the version alone (304) or from the snapshot cache when the report
+     * is finished; only a miss loads the report and runs Jackson. The snapshot's
+     * bytes, gzipped if the client accepts it, are written to the response as they are;
+     * the gzipped bytes carry an ETag of their own.
+     */
     @GetMapping("/reports/{year}/{week}")
     public ResponseEntity<?> getReport(@PathVariable int year,
                                        @PathVariable int week,
-                                       @AuthenticationPrincipal String email) {
-        return reportService.getByWeekAndYear(email, week, year)
-                .map(ResponseEntity::ok)
+                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                       @AuthenticationPrincipal String email,
+                                       WebRequest request) {
+        Optional<EntityVersion> current = reportService.findVersion(email, week, year);
+        if (current.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(reportETag(request, current.get()))) {
+            return null;
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        return reportSnapshots.get(current.get(), () -> reportService.getByWeekAndYear(email, week, year))
+                .<ResponseEntity<?>>map(snapshot -> {
+                    boolean compressed = gzip && snapshot.gzip() != null;
+                    EntityVersion version = new EntityVersion(snapshot.id(), snapshot.version());
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .eTag(compressed ? ETags.ofGzip(version) : ETags.of(version))
+                            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                    if (compressed) {
+                        response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    }
+                    return response.body(compressed ? snapshot.gzip() : snapshot.json());
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/reports")
     public ResponseEntity<?> addOrUpdateReport(@RequestBody Report report,
-                                               @AuthenticationPrincipal String email) {
+                                               @AuthenticationPrincipal String email,
+                                               WebRequest request) {
         if (report.getCalendarWeek() == null || report.getYear() == null) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "Week and year are required."));
         }
 
+        Long expectedVersion = null;
+        if (hasPreconditions(request)) {
+            Optional<EntityVersion> current = reportService.findVersionForWrite(email, report.getCalendarWeek(), report.getYear());
+            if (request.checkNotModified(current.map(version -> reportETag(request, version)).orElse(null))) {
+                return null;
+            }
+            expectedVersion = current.map(EntityVersion::version).orElse(null);
+        }
+
         report.setUserEmail(email);
-        Report saved = reportService.addOrUpdate(report);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        Report saved = reportService.addOrUpdate(report, expectedVersion);
+        reportSnapshots.evict(saved.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(saved)).body(saved);
+    }
+
+    /**
+     * Imports many weeks at once, e.g. when migrating from another journaling tool.
+     * Weeks that already have a report are skipped, not overwritten.
+     */
+    @PostMapping("/reports/bulk")
+    public ResponseEntity<?> importReports(@RequestBody List<Report> reports,
+                                           @AuthenticationPrincipal String email) {
+        if (reports == null || reports.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At least one report is required."));
+        }
+        if (reports.size() > ReportImportService.MAX_REPORTS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At most " + ReportImportService.MAX_REPORTS + " reports per request."));
+        }
+        for (Report report : reports) {
+            if (report == null || report.getYear() == null || report.getCalendarWeek() == null
+                    || report.getCalendarWeek() < 1 || report.getCalendarWeek() > 53) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "Every report needs a year and a week between 1 and 53."));
+            }
+        }
+
+        ImportResult result = reportImportService.importReports(email, reports);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    /**
+     * Partial score update, e.g. {@code {"Finances": 7.5, "Romance": null}}: listed
+     * categories are set, {@code null} removes a category, everything else is kept.
+     */
+    @PatchMapping("/reports/{year}/{week}/scores")
+    public ResponseEntity<?> patchScores(@PathVariable int year,
+                                         @PathVariable int week,
+                                         @RequestBody Map<String, Float> scores,
+                                         @AuthenticationPrincipal String email) {
+        if (scores == null || scores.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At least one score is required."));
+        }
+        if (scores.keySet().stream().anyMatch(name -> name == null || name.isBlank())) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Category name must not be empty"));
+        }
+
+        if (!reportService.patchScores(email, year, week, scores)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/reports/{year}/{week}")
     public ResponseEntity<Void> deleteReport(@PathVariable int year,
                                              @PathVariable int week,
-                                             @AuthenticationPrincipal String email) {
-        reportService.delete(email, week, year);
+                                             @AuthenticationPrincipal String email,
+                                             WebRequest request) {
+        Long expectedVersion = null;
+        if (hasPreconditions(request)) {
+            Optional<EntityVersion> current = reportService.findVersionForWrite(email, week, year);
+            if (request.checkNotModified(current.map(version -> reportETag(request, version)).orElse(null))) {
+                return null;
+            }
+            expectedVersion = current.map(EntityVersion::version).orElse(null);
+        }
+        reportService.delete(email, week, year, expectedVersion).forEach(reportSnapshots::evict);
         return ResponseEntity.noContent().build();
     }
 
+    // --- Chat ---
+    @PostMapping("/reports/{year}/{week}/chat")
+    public ResponseEntity<?> appendChatMessage(@PathVariable int year,
+                                               @PathVariable int week,
+                                               @RequestBody ChatMessage message,
+                                               @AuthenticationPrincipal String email) {
+        if (message == null || message.getMessage() == null || message.getMessage().isBlank()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Message must not be empty"));
+        }
+        if (message.getSender() == null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Sender must be one of: USER, AI"));
+        }
+
+        return chatService.append(email, year, week, message.getSender(), message.getMessage())
+                .<ResponseEntity<?>>map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Oldest messages first; pass {@code nextCursor} back as {@code after} for the next page.
+     */
+    @GetMapping("/reports/{year}/{week}/chat")
+    public ResponseEntity<?> getChat(@PathVariable int year,
+                                     @PathVariable int week,
+                                     @RequestParam(required = false) String after,
+                                     @RequestParam(defaultValue = "" + ChatService.DEFAULT_PAGE_SIZE) int limit,
+                                     @AuthenticationPrincipal String email) {
+        Long afterId = null;
+        if (after != null) {
+            try {
+                afterId = Long.parseLong(after);
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor: " + after));
+            }
+        }
+        if (limit < 1 || limit > ChatService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Limit must be between 1 and " + ChatService.MAX_PAGE_SIZE));
+        }
+
+        return chatService.getPage(email, year, week, afterId, limit)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/reports/this-week")
     public ResponseEntity<?> createEmptyReportForThisWeek(@AuthenticationPrincipal String email) {
         int week = LocalDate.now().get(WeekFields.ISO.weekOfWeekBasedYear());
         int year = LocalDate.now().get(WeekFields.ISO.weekBasedYear());
 
-        if (reportService.getByWeekAndYear(email, week, year).isPresent()) {
+        // Checked on the primary: a report the replica has not seen yet would otherwise be overwritten
+        if (reportService.findVersionForWrite(email, week, year).isPresent()) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(Map.of("error", "Report already exists for this week"));
         }
@@ -166,4 +428,39 @@ public class UserController {
 
         return ResponseEntity.status(HttpStatus.CREATED).body(reportService.addOrUpdate(newReport));
     }
+
+    // --- Conditional requests ---
+    // Writes only look up the current ETag when the client sent a precondition
+    private static boolean hasPreconditions(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+    }
+
+    // A report is tagged per encoding; preconditions may name either tag of the current version
+    private static String reportETag(WebRequest request, EntityVersion version) {
+        String gzip = ETags.ofGzip(version);
+        return names(request.getHeader(HttpHeaders.IF_NONE_MATCH), gzip)
+                || names(request.getHeader(HttpHeaders.IF_MATCH), gzip) ? gzip : ETags.of(version);
+    }
+
+    private static boolean names(String header, String etag) {
+        return header != null && header.contains(etag);
+    }
+
+    // A write that lost the race after its precondition was checked; without a
+    // precondition it is an ordinary conflict between two writers
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> onConcurrentUpdate(WebRequest request) {
+        HttpStatus status = request.getHeader(HttpHeaders.IF_MATCH) != null
+                ? HttpStatus.PRECONDITION_FAILED
+                : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status)
+                .body(Map.of("error", "The resource was changed concurrently; reload it and try again."));
+    }
+
+    // --- Analytics ---
+    @GetMapping("/analytics/trends")
+    public ResponseEntity<TrendsResponse> getTrends(@AuthenticationPrincipal String email) {
+        return ResponseEntity.ok(trendService.getTrends(email));
+    }
 }
@@ -0,0 +1,8 @@
+package com.opsontherocks.wheel_of_life.dto;
+
+/**
+ * Outcome of a bulk import: weeks that already had a report (or appeared twice
+ * in the payload) are skipped rather than overwritten.
+ */
+public record ImportResult(int imported, int skipped) {
+}
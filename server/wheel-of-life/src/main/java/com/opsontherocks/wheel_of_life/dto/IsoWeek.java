@@ -0,0 +1,61 @@
+package com.opsontherocks.wheel_of_life.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.WeekFields;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An ISO-8601 week such as {@code 2025-W27}, the unit reports are keyed by.
+ * Used for range filters and as the opaque cursor of paginated report lists.
+ */
+public record IsoWeek(int year, int week) implements Comparable<IsoWeek> {
+
+    private static final Pattern FORMAT = Pattern.compile("(\\d{4})-W(\\d{1,2})");
+
+    public IsoWeek {
+        if (week < 1 || week > 53) {
+            throw new IllegalArgumentException("Week must be between 1 and 53: " + week);
+        }
+    }
+
+    public static IsoWeek of(LocalDate date) {
+        return new IsoWeek(date.get(WeekFields.ISO.weekBasedYear()), date.get(WeekFields.ISO.weekOfWeekBasedYear()));
+    }
+
+    /**
+     * Parses {@code YYYY-Www}; throws {@link IllegalArgumentException} on anything else.
+     */
+    public static IsoWeek parse(String text) {
+        Matcher m = FORMAT.matcher(text == null ? "" : text.trim());
+        if (!m.matches()) {
+            throw new IllegalArgumentException("Expected an ISO week like 2025-W27, got: " + text);
+        }
+        return new IsoWeek(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+    }
+
+    /**
+     * Weeks since the ISO week containing 1970-01-01; consecutive weeks differ by one,
+     * also across year boundaries.
+     */
+    public long toEpochWeek() {
+        // Week 1 contains January 4th; counted forward so a stray week 53 does not throw
+        LocalDate monday = LocalDate.of(year, 1, 4)
+                .with(DayOfWeek.MONDAY)
+                .plusWeeks(week - 1L);
+        LocalDate epochMonday = LocalDate.of(1970, 1, 1).with(DayOfWeek.MONDAY);
+        return ChronoUnit.WEEKS.between(epochMonday, monday);
+    }
+
+    @Override
+    public int compareTo(IsoWeek other) {
+        return year != other.year ? Integer.compare(year, other.year) : Integer.compare(week, other.week);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%04d-W%02d", year, week);
+    }
+}
@@ -0,0 +1,7 @@
+package com.opsontherocks.wheel_of_life.dto;
+
+/**
+ * One category score of one weekly report.
+ */
+public record ScorePoint(Integer year, Integer week, String category, Float score) {
+}
@@ -0,0 +1,17 @@
+package com.opsontherocks.wheel_of_life.dto;
+
+/**
+ * Trend figures of a category, or of a category group (averaged over its
+ * categories, with the overall min and max). {@code latestWeek} is an ISO week
+ * such as {@code 2025-W27}.
+ */
+public record TrendSummary(String name,
+                           int reportCount,
+                           String latestWeek,
+                           double latestScore,
+                           double movingAverage,
+                           double min,
+                           double max,
+                           double slope,
+                           Double weekOverWeekDelta) {
+}
@@ -0,0 +1,6 @@
+package com.opsontherocks.wheel_of_life.dto;
+
+import java.util.List;
+
+public record TrendsResponse(List<TrendSummary> categories, List<TrendSummary> groups) {
+}
@@ -1,5 +1,6 @@
 package com.opsontherocks.wheel_of_life.entity;   // ♺ lower-case “entity” is conventional
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -7,15 +8,22 @@ import lombok.*;
 @Setter
 @Getter
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "ux_category_user_name", columnNames = {"user_email", "name"}))
 @NoArgsConstructor(access = AccessLevel.PUBLIC) // Required for JPA
 @AllArgsConstructor
 @RequiredArgsConstructor
 public class Category {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @SequenceGenerator(name = "category_seq", sequenceName = "category_seq", allocationSize = 50)
     private Long id;
 
+    // Bumped on every update; exposed as the ETag, ignored when sent by clients
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @NonNull
     @Column(nullable = false)
     private String name;
@@ -0,0 +1,63 @@
+package com.opsontherocks.wheel_of_life.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Precomputed trend of one category across a user's reports. Kept up to date by
+ * {@link com.opsontherocks.wheel_of_life.service.TrendService} whenever scores of
+ * that category change, so reading trends never scans the score history.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@RequiredArgsConstructor
+@Entity
+@Table(name = "category_trend",
+        uniqueConstraints = @UniqueConstraint(name = "ux_category_trend_user_category",
+                columnNames = {"user_email", "category_name"}))
+public class CategoryTrend {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_trend_seq")
+    @SequenceGenerator(name = "category_trend_seq", sequenceName = "category_trend_seq", allocationSize = 50)
+    private Long id;
+
+    @NonNull
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @NonNull
+    @Column(name = "category_name", nullable = false)
+    private String categoryName;
+
+    @Column(name = "report_count", nullable = false)
+    private int reportCount;
+
+    @Column(name = "latest_year", nullable = false)
+    private int latestYear;
+
+    @Column(name = "latest_week", nullable = false)
+    private int latestWeek;
+
+    @Column(name = "latest_score", nullable = false)
+    private float latestScore;
+
+    // Average of the last TrendService.MOVING_AVERAGE_WINDOW scores
+    @Column(name = "moving_average", nullable = false)
+    private double movingAverage;
+
+    @Column(name = "min_score", nullable = false)
+    private float minScore;
+
+    @Column(name = "max_score", nullable = false)
+    private float maxScore;
+
+    // Least-squares slope in points per week over the last TrendService.SLOPE_WINDOW scores
+    @Column(nullable = false)
+    private double slope;
+
+    // Latest score minus the one of the previous report; null with a single report
+    @Column(name = "week_over_week_delta")
+    private Float weekOverWeekDelta;
+}
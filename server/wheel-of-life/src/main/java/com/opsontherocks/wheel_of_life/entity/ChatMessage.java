@@ -1,5 +1,6 @@
 package com.opsontherocks.wheel_of_life.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -9,10 +10,12 @@ import lombok.*;
 @AllArgsConstructor
 @RequiredArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "idx_chat_message_report_id", columnList = "report_id, id"))
 public class ChatMessage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_message_seq")
+    @SequenceGenerator(name = "chat_message_seq", sequenceName = "chat_message_seq", allocationSize = 50)
     private Long id;
 
     @NonNull
@@ -24,6 +27,12 @@ public class ChatMessage {
     @Column(nullable = false)
     private Sender sender;
 
+    // Owning side of Report.chat, so a message can be inserted without loading the conversation
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "report_id", nullable = false, updatable = false)
+    private Report report;
+
     public enum Sender {
         USER,
         AI
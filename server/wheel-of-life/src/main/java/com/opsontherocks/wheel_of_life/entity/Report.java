@@ -1,8 +1,10 @@
 package com.opsontherocks.wheel_of_life.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -12,13 +14,20 @@ import java.util.Map;
 @AllArgsConstructor
 @RequiredArgsConstructor
 @Entity
-@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"calendar_week", "year", "user_email"}))
+@Table(uniqueConstraints = @UniqueConstraint(name = "ux_report_user_year_week",
+        columnNames = {"user_email", "year", "calendar_week"}))
 public class Report {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "report_seq")
+    @SequenceGenerator(name = "report_seq", sequenceName = "report_seq", allocationSize = 50)
     private Long id;
 
+    // Bumped by every change to the report, its scores or its chat; backs the ETags
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @NonNull
     @Column(name = "calendar_week", nullable = false)
     private Integer calendarWeek;
@@ -40,9 +49,24 @@ public class Report {
     @Column(name = "score")
     private Map<String, Float> scores;
 
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "report_id")
+    @OneToMany(mappedBy = "report", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
     private List<ChatMessage> chat;
+
+    public void setChat(List<ChatMessage> chat) {
+        this.chat = chat;
+        if (chat != null) {
+            chat.forEach(message -> message.setReport(this));
+        }
+    }
+
+    public void addMessage(ChatMessage message) {
+        message.setReport(this);
+        if (chat == null) {
+            chat = new ArrayList<>();
+        }
+        chat.add(message);
+    }
 }
 
 /*
@@ -0,0 +1,49 @@
+package com.opsontherocks.wheel_of_life.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-request database metrics: the data source JPA uses is wrapped to count
+ * statements, Hibernate's statistics count loads, and a filter publishes both
+ * per endpoint. Only the {@code dataSource} bean is wrapped, which is the routing
+ * proxy when a replica is configured, so no statement is counted twice.
+ */
+@Configuration
+public class RequestDbMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor statementMetricsPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return new StatementMetricsDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer requestStatisticsCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATS_BUILDER, new RequestStatisticsFactory());
+    }
+
+    // Ahead of Spring Security, so every handled request is measured
+    @Bean
+    public FilterRegistrationBean<RequestDbMetricsFilter> requestDbMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestDbMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestDbMetricsFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
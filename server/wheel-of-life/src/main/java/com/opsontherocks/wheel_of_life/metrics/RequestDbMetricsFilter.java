@@ -0,0 +1,71 @@
+package com.opsontherocks.wheel_of_life.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the database work of every request that reached a handler, tagged by
+ * method and URI template like {@code http_server_requests}. Lazy loads during
+ * JSON serialization still happen inside the chain, so they are counted too.
+ */
+public class RequestDbMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestDbMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RequestDbStats stats = RequestDbStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDbStats.end();
+            // Without a matched pattern there is no handler and no bounded uri tag to use
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                record(Tags.of("method", request.getMethod(), "uri", pattern.toString()), stats);
+            }
+        }
+    }
+
+    private void record(Tags tags, RequestDbStats stats) {
+        DistributionSummary.builder("wheel_of_life_request_jdbc_statements")
+                .description("JDBC statements executed per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.statements());
+        Timer.builder("wheel_of_life_request_db")
+                .description("Time per request spent executing JDBC statements")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.statementNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("wheel_of_life_request_entities_loaded")
+                .description("Entities loaded by Hibernate per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.entitiesLoaded());
+        DistributionSummary.builder("wheel_of_life_request_collections_initialized")
+                .description("Collections initialized by Hibernate per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.collectionsInitialized());
+    }
+}
@@ -0,0 +1,87 @@
+package com.opsontherocks.wheel_of_life.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Database work done by the request on the current thread: JDBC statements and
+ * the time spent in them, plus the entities and collections Hibernate loaded.
+ * Filled in by {@link StatementMetricsDataSource} and {@link RequestStatisticsFactory}
+ * between {@link #begin()} and {@link #end()}; outside of a request nothing is counted.
+ */
+public final class RequestDbStats {
+
+    private static final ThreadLocal<RequestDbStats> CURRENT = new ThreadLocal<>();
+
+    private final List<String> sql;
+    private long statements;
+    private long statementNanos;
+    private long entitiesLoaded;
+    private long collectionsInitialized;
+
+    private RequestDbStats(List<String> sql) {
+        this.sql = sql;
+    }
+
+    public static RequestDbStats begin() {
+        return begin(null);
+    }
+
+    /** Like {@link #begin()}, but also keeps the SQL of every statement, e.g. to report it from a test. */
+    public static RequestDbStats beginRecording() {
+        return begin(new ArrayList<>());
+    }
+
+    private static RequestDbStats begin(List<String> sql) {
+        RequestDbStats stats = new RequestDbStats(sql);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /** The stats of the request on this thread, or {@code null} outside of one. */
+    public static RequestDbStats current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted(String statement, long nanos) {
+        statements++;
+        statementNanos += nanos;
+        if (sql != null) {
+            sql.add(statement);
+        }
+    }
+
+    void entityLoaded() {
+        entitiesLoaded++;
+    }
+
+    void collectionInitialized() {
+        collectionsInitialized++;
+    }
+
+    public long statements() {
+        return statements;
+    }
+
+    public long statementNanos() {
+        return statementNanos;
+    }
+
+    public long entitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public long collectionsInitialized() {
+        return collectionsInitialized;
+    }
+
+    /** The executed SQL in order; empty unless started with {@link #beginRecording()}. */
+    public List<String> sql() {
+        return sql != null ? Collections.unmodifiableList(sql) : List.of();
+    }
+}
@@ -0,0 +1,44 @@
+package com.opsontherocks.wheel_of_life.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * Hibernate's own statistics, additionally counting loaded entities and
+ * initialized collections into the {@link RequestDbStats} of the current request.
+ * Hibernate only reports these while {@code hibernate.generate_statistics} is on.
+ */
+public class RequestStatisticsFactory implements StatisticsFactory {
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new RequestStatistics(sessionFactory);
+    }
+
+    private static final class RequestStatistics extends StatisticsImpl {
+
+        RequestStatistics(SessionFactoryImplementor sessionFactory) {
+            super(sessionFactory);
+        }
+
+        @Override
+        public void loadEntity(String entityName) {
+            super.loadEntity(entityName);
+            RequestDbStats stats = RequestDbStats.current();
+            if (stats != null) {
+                stats.entityLoaded();
+            }
+        }
+
+        @Override
+        public void loadCollection(String role) {
+            super.loadCollection(role);
+            RequestDbStats stats = RequestDbStats.current();
+            if (stats != null) {
+                stats.collectionInitialized();
+            }
+        }
+    }
+}
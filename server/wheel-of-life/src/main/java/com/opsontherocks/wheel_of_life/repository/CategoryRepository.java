@@ -2,16 +2,25 @@ package com.opsontherocks.wheel_of_life.repository;
 
 import com.opsontherocks.wheel_of_life.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CategoryRepository extends JpaRepository<Category, Long> {
+public interface CategoryRepository extends JpaRepository<Category, Long>, CategoryRepositoryCustom {
+    @Transactional(readOnly = true)
     List<Category> findByUserEmail(String email);
 
     void deleteById(Long id);
 
     Optional<Category> findByIdAndUserEmail(Long id, String email);
+
+    @Query("""
+            select new com.opsontherocks.wheel_of_life.repository.EntityVersion(c.id, c.version) from Category c
+            where c.id = :id and c.userEmail = :email
+            """)
+    Optional<EntityVersion> findVersion(Long id, String email);
 }
@@ -0,0 +1,15 @@
+package com.opsontherocks.wheel_of_life.repository;
+
+import com.opsontherocks.wheel_of_life.service.DefaultCategories;
+
+import java.util.List;
+
+public interface CategoryRepositoryCustom {
+
+    /**
+     * Inserts the templates for a user who has no categories yet, in one statement.
+     * Safe to call concurrently: the (user_email, name) unique constraint keeps
+     * racing calls from creating duplicates. Returns the number of rows inserted.
+     */
+    int insertDefaults(String userEmail, List<DefaultCategories.Template> templates);
+}
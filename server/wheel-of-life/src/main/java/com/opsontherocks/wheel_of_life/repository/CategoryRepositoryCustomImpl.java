@@ -0,0 +1,64 @@
+package com.opsontherocks.wheel_of_life.repository;
+
+import com.opsontherocks.wheel_of_life.service.DefaultCategories;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class CategoryRepositoryCustomImpl implements CategoryRepositoryCustom {
+
+    private static final String POSTGRES_INSERT = """
+            INSERT INTO category (id, name, category_group, user_email, version)
+            SELECT nextval('category_seq'), t.name, t.category_group, ?, 0
+            FROM (VALUES %s) AS t (name, category_group)
+            WHERE NOT EXISTS (SELECT 1 FROM category c WHERE c.user_email = ?)
+            ON CONFLICT (user_email, name) DO NOTHING
+            """;
+
+    // H2 (tests) has no ON CONFLICT; the unique constraint still rejects racing duplicates
+    private static final String H2_INSERT = """
+            INSERT INTO category (id, name, category_group, user_email, version)
+            SELECT NEXT VALUE FOR category_seq, t.name, t.category_group, ?, 0
+            FROM (VALUES %s) AS t (name, category_group)
+            WHERE NOT EXISTS (SELECT 1 FROM category c WHERE c.user_email = ?)
+            """;
+
+    private final JdbcTemplate jdbc;
+    private volatile Boolean postgres;
+
+    CategoryRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public int insertDefaults(String userEmail, List<DefaultCategories.Template> templates) {
+        if (templates.isEmpty()) {
+            return 0;
+        }
+
+        List<Object> args = new ArrayList<>();
+        args.add(userEmail);
+        for (DefaultCategories.Template template : templates) {
+            args.add(template.name());
+            args.add(template.group().name());
+        }
+        args.add(userEmail);
+
+        String rows = String.join(", ", Collections.nCopies(templates.size(), "(?, ?)"));
+        String sql = String.format(isPostgres() ? POSTGRES_INSERT : H2_INSERT, rows);
+        return jdbc.update(sql, args.toArray());
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equals(product);
+            postgres = result;
+        }
+        return result;
+    }
+}
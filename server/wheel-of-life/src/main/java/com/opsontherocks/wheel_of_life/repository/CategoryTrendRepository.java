@@ -0,0 +1,21 @@
+package com.opsontherocks.wheel_of_life.repository;
+
+import com.opsontherocks.wheel_of_life.entity.CategoryTrend;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CategoryTrendRepository extends JpaRepository<CategoryTrend, Long>, CategoryTrendRepositoryCustom {
+
+    List<CategoryTrend> findByUserEmail(String userEmail);
+
+    List<CategoryTrend> findByUserEmailAndCategoryNameIn(String userEmail, Collection<String> categoryNames);
+
+    // Trends of categories that no longer have any score; one statement, nothing loaded
+    @Modifying
+    @Query("delete from CategoryTrend t where t.userEmail = :userEmail and t.categoryName in :categoryNames")
+    int deleteByUserEmailAndCategoryNameIn(String userEmail, Collection<String> categoryNames);
+}
@@ -0,0 +1,14 @@
+package com.opsontherocks.wheel_of_life.repository;
+
+import com.opsontherocks.wheel_of_life.entity.CategoryTrend;
+
+public interface CategoryTrendRepositoryCustom {
+
+    /**
+     * Inserts the trend or overwrites the stored one of the same user and category,
+     * in a single statement keyed on the (user_email, category_name) unique
+     * constraint, so concurrent writers for a new category cannot both insert. The
+     * id of {@code trend} is ignored and the write bypasses the persistence context.
+     */
+    void upsert(CategoryTrend trend);
+}
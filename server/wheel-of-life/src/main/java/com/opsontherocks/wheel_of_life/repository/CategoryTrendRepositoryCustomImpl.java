@@ -0,0 +1,75 @@
+package com.opsontherocks.wheel_of_life.repository;
+
+import com.opsontherocks.wheel_of_life.entity.CategoryTrend;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class CategoryTrendRepositoryCustomImpl implements CategoryTrendRepositoryCustom {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO category_trend (id, user_email, category_name, report_count, latest_year, latest_week,
+                latest_score, moving_average, min_score, max_score, slope, week_over_week_delta)
+            VALUES (nextval('category_trend_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_email, category_name) DO UPDATE SET
+                report_count = EXCLUDED.report_count,
+                latest_year = EXCLUDED.latest_year,
+                latest_week = EXCLUDED.latest_week,
+                latest_score = EXCLUDED.latest_score,
+                moving_average = EXCLUDED.moving_average,
+                min_score = EXCLUDED.min_score,
+                max_score = EXCLUDED.max_score,
+                slope = EXCLUDED.slope,
+                week_over_week_delta = EXCLUDED.week_over_week_delta
+            """;
+
+    // Standard MERGE for H2 (tests); MERGE ... KEY would also overwrite the id of an existing row
+    private static final String MERGE = """
+            MERGE INTO category_trend t
+            USING (VALUES (CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS INT), CAST(? AS INT), CAST(? AS INT),
+                    CAST(? AS REAL), CAST(? AS DOUBLE PRECISION), CAST(? AS REAL), CAST(? AS REAL),
+                    CAST(? AS DOUBLE PRECISION), CAST(? AS REAL)))
+                AS s (user_email, category_name, report_count, latest_year, latest_week, latest_score,
+                    moving_average, min_score, max_score, slope, week_over_week_delta)
+            ON t.user_email = s.user_email AND t.category_name = s.category_name
+            WHEN MATCHED THEN UPDATE SET
+                report_count = s.report_count,
+                latest_year = s.latest_year,
+                latest_week = s.latest_week,
+                latest_score = s.latest_score,
+                moving_average = s.moving_average,
+                min_score = s.min_score,
+                max_score = s.max_score,
+                slope = s.slope,
+                week_over_week_delta = s.week_over_week_delta
+            WHEN NOT MATCHED THEN INSERT (id, user_email, category_name, report_count, latest_year, latest_week,
+                    latest_score, moving_average, min_score, max_score, slope, week_over_week_delta)
+                VALUES (NEXT VALUE FOR category_trend_seq, s.user_email, s.category_name, s.report_count,
+                    s.latest_year, s.latest_week, s.latest_score, s.moving_average, s.min_score, s.max_score,
+                    s.slope, s.week_over_week_delta)
+            """;
+
+    private final JdbcTemplate jdbc;
+    private volatile Boolean postgres;
+
+    CategoryTrendRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void upsert(CategoryTrend trend) {
+        jdbc.update(isPostgres() ? POSTGRES_UPSERT : MERGE,
+                trend.getUserEmail(), trend.getCategoryName(), trend.getReportCount(), trend.getLatestYear(),
+                trend.getLatestWeek(), trend.getLatestScore(), trend.getMovingAverage(), trend.getMinScore(),
+                trend.getMaxScore(), trend.getSlope(), trend.getWeekOverWeekDelta());
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equals(product);
+            postgres = result;
+        }
+        return result;
+    }
+}
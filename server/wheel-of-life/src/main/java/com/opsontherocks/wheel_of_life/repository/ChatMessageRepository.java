@@ -0,0 +1,15 @@
+package com.opsontherocks.wheel_of_life.repository;
+
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
+
+    // Keyset page of one conversation, served by idx_chat_message_report_id
+    @Query("select m from ChatMessage m where m.report.id = :reportId and m.id > :afterId order by m.id asc")
+    List<ChatMessage> findPage(Long reportId, long afterId, Pageable pageable);
+}
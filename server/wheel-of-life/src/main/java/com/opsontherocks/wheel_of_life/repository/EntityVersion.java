@@ -0,0 +1,8 @@
+package com.opsontherocks.wheel_of_life.repository;
+
+/**
+ * Id and optimistic-locking version of a single row, enough to build its ETag
+ * without loading the entity.
+ */
+public record EntityVersion(long id, long version) {
+}
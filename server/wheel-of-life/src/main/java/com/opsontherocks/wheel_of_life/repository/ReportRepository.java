@@ -1,16 +1,107 @@
 package com.opsontherocks.wheel_of_life.repository;
 
+import com.opsontherocks.wheel_of_life.dto.IsoWeek;
+import com.opsontherocks.wheel_of_life.dto.ScorePoint;
 import com.opsontherocks.wheel_of_life.entity.Report;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ReportRepository extends JpaRepository<Report, Long> {
+public interface ReportRepository extends JpaRepository<Report, Long>, ReportRepositoryCustom {
 
+    int EXPORT_FETCH_SIZE = 50;
+
+    // Scores are joined in; chat is loaded separately with fetchChat, because
+    // joining both collections would multiply the rows (and duplicate the chat bag)
+    @EntityGraph(attributePaths = "scores")
     List<Report> findByUserEmail(String userEmail);
 
+    // Keyset page ordered by (year, calendar_week), served by ux_report_user_year_week.
+    // The lower bound is exclusive, the upper bound inclusive.
+    @Query("""
+            select r from Report r
+            where r.userEmail = :userEmail
+              and (r.year > :afterYear or (r.year = :afterYear and r.calendarWeek > :afterWeek))
+              and (r.year < :toYear or (r.year = :toYear and r.calendarWeek <= :toWeek))
+            order by r.year asc, r.calendarWeek asc
+            """)
+    List<Report> findPage(String userEmail,
+                          int afterYear, int afterWeek,
+                          int toYear, int toWeek,
+                          Pageable pageable);
+
+    // Server-side cursor over all of a user's reports; the caller must close the
+    // stream and consume it inside a transaction (PostgreSQL only honours the
+    // fetch size with autocommit off)
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r from Report r where r.userEmail = :userEmail order by r.year asc, r.calendarWeek asc")
+    Stream<Report> streamByUserEmail(String userEmail);
+
+    // Initializes the scores of every given report with a single query
+    @Query("select distinct r from Report r left join fetch r.scores where r in :reports")
+    List<Report> fetchScores(Collection<Report> reports);
+
+    // Initializes the chat of every given report with a single query
+    @Query("select distinct r from Report r left join fetch r.chat where r in :reports")
+    List<Report> fetchChat(Collection<Report> reports);
+
+    @Query("select new com.opsontherocks.wheel_of_life.dto.IsoWeek(r.year, r.calendarWeek) from Report r where r.userEmail = :userEmail")
+    List<IsoWeek> findWeeksByUserEmail(String userEmail);
+
+    @Query("select r.id from Report r where r.userEmail = :userEmail and r.year = :year and r.calendarWeek = :week")
+    Optional<Long> findIdByWeek(String userEmail, int year, int week);
+
+    @Query("""
+            select new com.opsontherocks.wheel_of_life.repository.EntityVersion(r.id, r.version) from Report r
+            where r.userEmail = :userEmail and r.year = :year and r.calendarWeek = :week
+            """)
+    Optional<EntityVersion> findVersionByWeek(String userEmail, int year, int week);
+
+    // Backs the ETag of the whole list without loading the reports or their collections
+    @Query("""
+            select new com.opsontherocks.wheel_of_life.repository.EntityVersion(r.id, r.version) from Report r
+            where r.userEmail = :userEmail
+            """)
+    List<EntityVersion> findVersions(String userEmail);
+
+    // For changes that bypass the entity (chat appends), so the report's ETag still moves
+    @Modifying
+    @Query("update Report r set r.version = r.version + 1 where r.id = :id")
+    int incrementVersion(long id);
+
+    // Score history of the given categories in (year, week) order, for the trend summary.
+    // Null scores (a category listed but left unrated) are not part of the history.
+    @Query("""
+            select new com.opsontherocks.wheel_of_life.dto.ScorePoint(r.year, r.calendarWeek, key(s), value(s))
+            from Report r join r.scores s
+            where r.userEmail = :userEmail and key(s) in :categories and value(s) is not null
+            order by r.year asc, r.calendarWeek asc
+            """)
+    List<ScorePoint> findScorePoints(String userEmail, Collection<String> categories);
+
+    @Query("select distinct key(s) from Report r join r.scores s where r.userEmail = :userEmail")
+    List<String> findScoredCategories(String userEmail);
+
+    @Query("""
+            select key(s) from Report r join r.scores s
+            where r.userEmail = :userEmail and r.year = :year and r.calendarWeek = :week
+            """)
+    List<String> findScoredCategoriesByWeek(String userEmail, int year, int week);
+
     Optional<Report> findByCalendarWeekAndYearAndUserEmail(Integer calendarWeek, Integer year, String userEmail);
 
-    void deleteByCalendarWeekAndYearAndUserEmail(Integer calendarWeek, Integer year, String userEmail);
+    List<Report> deleteByCalendarWeekAndYearAndUserEmail(Integer calendarWeek, Integer year, String userEmail);
 }
@@ -0,0 +1,24 @@
+package com.opsontherocks.wheel_of_life.repository;
+
+import com.opsontherocks.wheel_of_life.entity.Report;
+
+import java.util.Map;
+
+public interface ReportRepositoryCustom {
+
+    /**
+     * Inserts the report row unless the user already has a report for that week, in a
+     * single statement keyed on the (calendar_week, year, user_email) unique
+     * constraint. An existing row, its scores and its chat are not touched. The write
+     * bypasses the persistence context.
+     */
+    ReportUpsertResult upsert(Report report);
+
+    /**
+     * Applies a partial score update to one report: entries with a value are inserted
+     * or overwritten, entries mapped to {@code null} are deleted, all other categories
+     * are left alone. At most one DELETE and one upsert statement are issued, plus one
+     * UPDATE that bumps the report's version.
+     */
+    void patchScores(long reportId, Map<String, Float> changes);
+}
@@ -0,0 +1,123 @@
+package com.opsontherocks.wheel_of_life.repository;
+
+import com.opsontherocks.wheel_of_life.entity.Report;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+class ReportRepositoryCustomImpl implements ReportRepositoryCustom {
+
+    // An existing row is left as it is (the no-op update only makes RETURNING see it):
+    // its notes are applied through the entity so that the version check applies.
+    // xmax is 0 for a freshly inserted row version and non-zero when ON CONFLICT updated it
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO report (id, calendar_week, year, user_email, notes, version)
+            VALUES (nextval('report_seq'), ?, ?, ?, ?, 0)
+            ON CONFLICT (calendar_week, year, user_email)
+            DO UPDATE SET notes = report.notes
+            RETURNING id, (xmax = 0) AS inserted
+            """;
+
+    // Standard MERGE for H2 (tests); it cannot return the row, so the id is looked up separately
+    private static final String MERGE = """
+            MERGE INTO report r
+            USING (VALUES (CAST(? AS INT), CAST(? AS INT), CAST(? AS VARCHAR), CAST(? AS VARCHAR)))
+                AS s (calendar_week, year, user_email, notes)
+            ON r.calendar_week = s.calendar_week AND r.year = s.year AND r.user_email = s.user_email
+            WHEN NOT MATCHED THEN INSERT (id, calendar_week, year, user_email, notes, version)
+                VALUES (NEXT VALUE FOR report_seq, s.calendar_week, s.year, s.user_email, s.notes, 0)
+            """;
+
+    private static final String FIND_ID =
+            "SELECT id FROM report WHERE calendar_week = ? AND year = ? AND user_email = ?";
+
+    // report_scores is keyed by (report_id, category_name), the primary key of the map collection
+    private static final String POSTGRES_UPSERT_SCORES_PREFIX =
+            "INSERT INTO report_scores (report_id, category_name, score) VALUES ";
+    private static final String POSTGRES_UPSERT_SCORES_SUFFIX =
+            " ON CONFLICT (report_id, category_name) DO UPDATE SET score = EXCLUDED.score";
+    private static final String H2_MERGE_SCORES_PREFIX =
+            "MERGE INTO report_scores (report_id, category_name, score) KEY (report_id, category_name) VALUES ";
+
+    private final JdbcTemplate jdbc;
+    private volatile Boolean postgres;
+
+    ReportRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public ReportUpsertResult upsert(Report report) {
+        Object[] args = {report.getCalendarWeek(), report.getYear(), report.getUserEmail(), report.getNotes()};
+        if (isPostgres()) {
+            return jdbc.queryForObject(POSTGRES_UPSERT,
+                    (rs, rowNum) -> new ReportUpsertResult(rs.getLong("id"), rs.getBoolean("inserted")),
+                    args);
+        }
+
+        Long existing = findId(report);
+        jdbc.update(MERGE, args);
+        return existing != null
+                ? new ReportUpsertResult(existing, false)
+                : new ReportUpsertResult(findId(report), true);
+    }
+
+    @Override
+    public void patchScores(long reportId, Map<String, Float> changes) {
+        List<Object> deleteArgs = new ArrayList<>();
+        List<Object> upsertArgs = new ArrayList<>();
+        deleteArgs.add(reportId);
+        changes.forEach((category, score) -> {
+            if (score == null) {
+                deleteArgs.add(category);
+            } else {
+                upsertArgs.add(reportId);
+                upsertArgs.add(category);
+                upsertArgs.add(score);
+            }
+        });
+
+        int deletes = deleteArgs.size() - 1;
+        if (deletes > 0) {
+            jdbc.update("DELETE FROM report_scores WHERE report_id = ? AND category_name IN ("
+                    + placeholders(deletes) + ")", deleteArgs.toArray());
+        }
+
+        int upserts = upsertArgs.size() / 3;
+        if (upserts > 0) {
+            String rows = String.join(", ", Collections.nCopies(upserts, "(?, ?, ?)"));
+            String sql = isPostgres()
+                    ? POSTGRES_UPSERT_SCORES_PREFIX + rows + POSTGRES_UPSERT_SCORES_SUFFIX
+                    : H2_MERGE_SCORES_PREFIX + rows;
+            jdbc.update(sql, upsertArgs.toArray());
+        }
+
+        // The scores are not written through the entity, so bump its version here
+        jdbc.update("UPDATE report SET version = version + 1 WHERE id = ?", reportId);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private Long findId(Report report) {
+        return jdbc.query(FIND_ID,
+                (ResultSetExtractor<Long>) rs -> rs.next() ? rs.getLong(1) : null,
+                report.getCalendarWeek(), report.getYear(), report.getUserEmail());
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equals(product);
+            postgres = result;
+        }
+        return result;
+    }
+}
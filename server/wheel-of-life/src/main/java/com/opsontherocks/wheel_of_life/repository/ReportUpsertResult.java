@@ -0,0 +1,8 @@
+package com.opsontherocks.wheel_of_life.repository;
+
+/**
+ * Id of the row written by {@link ReportRepositoryCustom#upsert(com.opsontherocks.wheel_of_life.entity.Report)}
+ * and whether it was newly inserted (as opposed to updated).
+ */
+public record ReportUpsertResult(long id, boolean inserted) {
+}
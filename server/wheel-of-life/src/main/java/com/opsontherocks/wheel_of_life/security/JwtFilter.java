@@ -29,7 +29,10 @@ public class JwtFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtFilter.class);
 
-    private final JwtUtil jwtUtil;
+    /** Request attribute holding the display name from the token, when it has one. */
+    public static final String DISPLAY_NAME_ATTRIBUTE = JwtFilter.class.getName() + ".displayName";
+
+    private final VerifiedTokenCache verifiedTokens;
 
     @Override
     protected void doFilterInternal(
@@ -52,14 +55,15 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         String username = null;
+        String displayName = null;
         List<GrantedAuthority> authorities = null;
 
         if (jwt != null) {
             try {
-                if (jwtUtil.validateToken(jwt)) {
-                    username = jwtUtil.extractUsername(jwt);
-                    authorities = jwtUtil.extractAuthorities(jwt);
-                }
+                VerifiedToken token = verifiedTokens.verify(jwt);
+                username = token.username();
+                displayName = token.displayName();
+                authorities = token.authorities();
             } catch (ExpiredJwtException e) {
                 logger.warn("JWT token is expired: {}", e.getMessage());
             } catch (UnsupportedJwtException e) {
@@ -80,6 +84,9 @@ public class JwtFilter extends OncePerRequestFilter {
                     username, null, authorities);
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
+            if (displayName != null) {
+                request.setAttribute(DISPLAY_NAME_ATTRIBUTE, displayName);
+            }
         }
 
         filterChain.doFilter(request, response);
@@ -1,6 +1,7 @@
 package com.opsontherocks.wheel_of_life.security; // Adjust package if needed
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -19,23 +20,45 @@ import java.util.stream.Collectors;
 @Component
 public class JwtUtil {
 
+    /** Display name claim set by the authentication service. */
+    public static final String NAME_CLAIM = "name";
+
     @Value("${jwt.secret}")
     private String secret;
 
     private Key key;
 
+    // Immutable and thread-safe, so it is built once instead of per call
+    private JwtParser parser;
+
     @PostConstruct
     public void init() {
         if (secret == null || secret.length() < 64) {
             throw new IllegalStateException("JWT_SECRET missing or too short (needs ≥64 chars)");
         }
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
         System.out.println("JWT secret length = " + secret.length());
     }
 
 
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Checks signature and expiry with a single parse and returns everything the
+     * filter needs. Throws the usual {@link io.jsonwebtoken.JwtException} subtypes
+     * when the token is invalid or expired.
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = extractAllClaims(token);
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get(NAME_CLAIM, String.class),
+                authoritiesFrom(claims),
+                expiration != null ? expiration.toInstant() : null);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -51,9 +74,12 @@ public class JwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    @SuppressWarnings("unchecked")
     public List<GrantedAuthority> extractAuthorities(String token) {
-        final Claims claims = extractAllClaims(token);
+        return authoritiesFrom(extractAllClaims(token));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<GrantedAuthority> authoritiesFrom(Claims claims) {
         List<Map<String, String>> authoritiesMaps = claims.get("authorities", List.class);
         if (authoritiesMaps == null) {
             // If no authorities are found, return a default ROLE_USER authority
@@ -64,14 +90,11 @@ public class JwtUtil {
                 .collect(Collectors.toList());
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     public Boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return !isTokenExpired(token);
+            // parseClaimsJws rejects bad signatures and expired tokens in one pass
+            verify(token);
+            return true;
         } catch (Exception e) {
             System.err.println("JWT Validation error: " + e.getMessage());
             return false;
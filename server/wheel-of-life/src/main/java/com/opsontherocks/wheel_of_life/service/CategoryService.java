@@ -1,42 +1,165 @@
 package com.opsontherocks.wheel_of_life.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.opsontherocks.wheel_of_life.entity.Category;
 import com.opsontherocks.wheel_of_life.repository.CategoryRepository;
+import com.opsontherocks.wheel_of_life.repository.EntityVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Categories per user, read through a bounded in-process cache. Every write
+ * through this service drops the owner's entry; the TTL bounds how stale another
+ * instance's entry can get.
+ */
 @Service
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final TransactionOperations transactions;
+    private final Cache<String, List<Category>> categoriesByUser;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository,
+                           TransactionOperations transactions,
+                           MeterRegistry meterRegistry,
+                           @Value("${categories.cache.max-size:10000}") long maxSize,
+                           @Value("${categories.cache.ttl:PT10M}") Duration ttl) {
         this.categoryRepository = categoryRepository;
+        this.transactions = transactions;
+        // Size-bounded (Caffeine evicts by frequency and recency) with a write TTL
+        this.categoriesByUser = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, categoriesByUser, "categories_by_user");
     }
 
+    @Transactional(readOnly = true)
     public List<Category> getAll() {
         return categoryRepository.findAll();
     }
 
     public Category add(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        evict(saved.getUserEmail());
+        return saved;
     }
 
+    @Transactional
     public void deleteById(Long id){
-        categoryRepository.deleteById(id);
+        deleteById(id, null);
     }
 
+    /**
+     * Deletes the category if it exists; throws {@link ObjectOptimisticLockingFailureException}
+     * if {@code expectedVersion} is given and the category is gone or no longer at that version.
+     */
+    @Transactional
+    public void deleteById(Long id, Long expectedVersion) {
+        Optional<Category> category = categoryRepository.findById(id);
+        if (expectedVersion != null && !category.map(Category::getVersion).equals(Optional.of(expectedVersion))) {
+            throw new ObjectOptimisticLockingFailureException(Category.class, id);
+        }
+        category.ifPresent(c -> {
+            categoryRepository.delete(c);
+            // Flushed here: the delete is versioned, so a concurrent rename surfaces to the caller
+            categoryRepository.flush();
+            evict(c.getUserEmail());
+        });
+    }
+
+    // Not transactional itself, so cache hits never touch a connection. Misses are
+    // read in a read-write transaction, i.e. from the primary: a lagging replica
+    // would otherwise put the list from before the user's last write in the cache
     public List<Category> getByUserEmail(String email) {
-        return categoryRepository.findByUserEmail(email);
+        return categoriesByUser.get(email, key ->
+                transactions.execute(status -> List.copyOf(categoryRepository.findByUserEmail(key))));
     }
 
+    // Read-write on purpose: the category is usually modified next, which an entity
+    // loaded read-only into the request's session would silently not flush
+    @Transactional
     public Optional<Category> findByIdAndUserEmail(Long id, String email) {
         return categoryRepository.findByIdAndUserEmail(id, email);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<EntityVersion> findVersion(Long id, String email) {
+        return categoryRepository.findVersion(id, email);
+    }
+
+    // Read-write, i.e. from the primary, for the preconditions of writes
+    @Transactional
+    public Optional<EntityVersion> findVersionForWrite(Long id, String email) {
+        return categoryRepository.findVersion(id, email);
+    }
+
+    /**
+     * Renames the user's category in one read-write transaction, so the entity is
+     * never one loaded read-only earlier in the request. Empty if there is no such
+     * category; throws {@link ObjectOptimisticLockingFailureException} if
+     * {@code expectedVersion} is given and no longer current.
+     */
+    @Transactional
+    public Optional<Category> rename(Long id, String email, String name, Long expectedVersion) {
+        Optional<Category> category = categoryRepository.findByIdAndUserEmail(id, email);
+        category.ifPresent(c -> {
+            if (expectedVersion != null && !expectedVersion.equals(c.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Category.class, id);
+            }
+            c.setName(name);
+            // Flushed here so the new version and duplicate names surface to the caller
+            categoryRepository.saveAndFlush(c);
+            evict(email);
+        });
+        return category;
+    }
+
     public Category update(Category toUpdate) {
-        return categoryRepository.save(toUpdate);
+        Category saved = categoryRepository.save(toUpdate);
+        evict(saved.getUserEmail());
+        return saved;
+    }
+
+    /**
+     * Gives a user without categories the default set, in a single statement.
+     * Returns the number of categories created (0 if the user already had some).
+     */
+    @Transactional
+    public int createDefaults(String email) {
+        int created = categoryRepository.insertDefaults(email, DefaultCategories.TEMPLATES);
+        evict(email);
+        return created;
+    }
+
+    /**
+     * Drops the user's entry, inside a transaction only once it has committed:
+     * evicting earlier would let a concurrent read cache the pre-commit list
+     * until the TTL runs out.
+     */
+    public void evict(String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            categoriesByUser.invalidate(email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                categoriesByUser.invalidate(email);
+            }
+        });
     }
 }
@@ -0,0 +1,65 @@
+package com.opsontherocks.wheel_of_life.service;
+
+import com.opsontherocks.wheel_of_life.dto.CursorPage;
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.repository.ChatMessageRepository;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Chat of a weekly report, one message at a time. Appending inserts a single row
+ * and never loads the existing conversation.
+ */
+@Service
+public class ChatService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final ReportRepository reportRepository;
+    private final ChatMessageRepository chatMessageRepository;
+
+    public ChatService(ReportRepository reportRepository, ChatMessageRepository chatMessageRepository) {
+        this.reportRepository = reportRepository;
+        this.chatMessageRepository = chatMessageRepository;
+    }
+
+    /**
+     * Adds a message to the user's report for the week and bumps the report's version.
+     * Empty if there is no such report.
+     */
+    @Transactional
+    public Optional<ChatMessage> append(String email, int year, int week, ChatMessage.Sender sender, String text) {
+        return reportRepository.findIdByWeek(email, year, week)
+                .map(reportId -> {
+                    ChatMessage message = new ChatMessage(text, sender);
+                    message.setReport(reportRepository.getReferenceById(reportId));
+                    reportRepository.incrementVersion(reportId);
+                    return chatMessageRepository.save(message);
+                });
+    }
+
+    /**
+     * Returns the messages after {@code afterId} (oldest first), or empty if there
+     * is no report for the week.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CursorPage<ChatMessage>> getPage(String email, int year, int week, Long afterId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return reportRepository.findIdByWeek(email, year, week)
+                .map(reportId -> {
+                    List<ChatMessage> rows = chatMessageRepository.findPage(
+                            reportId, afterId != null ? afterId : 0L, PageRequest.of(0, size + 1));
+                    boolean hasMore = rows.size() > size;
+                    List<ChatMessage> items = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+                    String nextCursor = hasMore ? String.valueOf(items.get(items.size() - 1).getId()) : null;
+                    return new CursorPage<>(items, nextCursor);
+                });
+    }
+}
@@ -0,0 +1,31 @@
+package com.opsontherocks.wheel_of_life.service;
+
+import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
+
+import java.util.List;
+
+/**
+ * The categories every new user starts with. Single source for the
+ * {@code /categories/defaults} endpoint and the demo data.
+ */
+public final class DefaultCategories {
+
+    public record Template(String name, CategoryGroup group) {
+    }
+
+    public static final List<Template> TEMPLATES = List.of(
+            new Template("Finances", CategoryGroup.Career),
+            new Template("Mental Health", CategoryGroup.Health),
+            new Template("Physical Health", CategoryGroup.Health),
+            new Template("Friends", CategoryGroup.Relationships),
+            new Template("Family", CategoryGroup.Relationships),
+            new Template("Romance", CategoryGroup.Relationships),
+            new Template("Growth", CategoryGroup.Career),
+            new Template("Purpose", CategoryGroup.Career),
+            new Template("Social Engagement", CategoryGroup.Other),
+            new Template("Entertainment", CategoryGroup.Other)
+    );
+
+    private DefaultCategories() {
+    }
+}
@@ -0,0 +1,81 @@
+package com.opsontherocks.wheel_of_life.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's complete report history as newline-delimited JSON. Reports are
+ * read through a database cursor and handled in fixed-size chunks: the chunk's
+ * scores and chat are fetched, every report is written out and then detached,
+ * so memory use does not grow with the length of the history.
+ */
+@Service
+public class ReportExportService {
+
+    static final int CHUNK_SIZE = ReportRepository.EXPORT_FETCH_SIZE;
+
+    private final ReportRepository reportRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ReportExportService(ReportRepository reportRepository,
+                               EntityManager entityManager,
+                               ObjectMapper objectMapper) {
+        this.reportRepository = reportRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Streams all reports of the user to {@code out}, one JSON object per line,
+     * ordered by year and week. Returns the number of reports written.
+     */
+    @Transactional(readOnly = true)
+    public long export(String email, OutputStream out) throws IOException {
+        List<Report> chunk = new ArrayList<>(CHUNK_SIZE);
+        long written = 0;
+        try (Stream<Report> reports = reportRepository.streamByUserEmail(email)) {
+            Iterator<Report> it = reports.iterator();
+            while (it.hasNext()) {
+                chunk.add(it.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    written += writeChunk(chunk, out);
+                }
+            }
+            written += writeChunk(chunk, out);
+        }
+        return written;
+    }
+
+    private int writeChunk(List<Report> chunk, OutputStream out) throws IOException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        reportRepository.fetchScores(chunk);
+        reportRepository.fetchChat(chunk);
+
+        for (Report report : chunk) {
+            // writeValueAsBytes rather than writeValue: the latter closes the target stream
+            out.write(objectMapper.writeValueAsBytes(report));
+            out.write('\n');
+            // Cascades to the chat messages
+            entityManager.detach(report);
+        }
+        out.flush();
+
+        int size = chunk.size();
+        chunk.clear();
+        return size;
+    }
+}
@@ -0,0 +1,92 @@
+package com.opsontherocks.wheel_of_life.service;
+
+import com.opsontherocks.wheel_of_life.dto.ImportResult;
+import com.opsontherocks.wheel_of_life.dto.IsoWeek;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports many weeks of history at once. Reports, their scores and chat rows are
+ * persisted with JDBC batching (ids come from pooled sequences, so Hibernate does
+ * not need a round trip per row) and the persistence context is flushed and
+ * cleared every {@link #BATCH_SIZE} reports to keep memory flat.
+ */
+@Service
+public class ReportImportService {
+
+    public static final int MAX_REPORTS = 1000;
+
+    // Matches hibernate.jdbc.batch_size
+    static final int BATCH_SIZE = 50;
+
+    private final ReportRepository reportRepository;
+    private final TrendService trendService;
+    private final EntityManager entityManager;
+    private final Counter reportsCreatedCounter;
+
+    public ReportImportService(ReportRepository reportRepository,
+                               TrendService trendService,
+                               EntityManager entityManager,
+                               MeterRegistry meterRegistry) {
+        this.reportRepository = reportRepository;
+        this.trendService = trendService;
+        this.entityManager = entityManager;
+        // Same meter as in ReportService; the registry returns the existing counter
+        this.reportsCreatedCounter = Counter.builder("wheel_of_life_reports_total")
+                .description("Total number of reports created")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Persists the given reports for the user in one transaction. Weeks that already
+     * exist, or occur more than once in {@code reports}, are skipped.
+     */
+    @Transactional
+    public ImportResult importReports(String email, List<Report> reports) {
+        Set<IsoWeek> taken = new HashSet<>(reportRepository.findWeeksByUserEmail(email));
+
+        Set<String> categories = new HashSet<>();
+        int imported = 0;
+        int skipped = 0;
+        for (Report report : reports) {
+            if (!taken.add(new IsoWeek(report.getYear(), report.getCalendarWeek()))) {
+                skipped++;
+                continue;
+            }
+
+            // Ids from the payload would make persist() treat the rows as detached
+            report.setId(null);
+            report.setUserEmail(email);
+            if (report.getScores() != null) {
+                categories.addAll(report.getScores().keySet());
+            }
+            if (report.getChat() != null) {
+                report.getChat().forEach(message -> {
+                    message.setId(null);
+                    message.setReport(report);
+                });
+            }
+            entityManager.persist(report);
+
+            if (++imported % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        trendService.recompute(email, categories);
+        reportsCreatedCounter.increment(imported);
+        return new ImportResult(imported, skipped);
+    }
+}
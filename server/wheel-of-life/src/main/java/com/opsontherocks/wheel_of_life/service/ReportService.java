@@ -1,25 +1,46 @@
 package com.opsontherocks.wheel_of_life.service;
 
+import com.opsontherocks.wheel_of_life.dto.CursorPage;
+import com.opsontherocks.wheel_of_life.dto.IsoWeek;
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
 import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.EntityVersion;
 import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.repository.ReportUpsertResult;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ReportRepository reportRepository;
+    private final TrendService trendService;
     private final MeterRegistry meterRegistry;
 
     // Custom metrics
     private final Counter reportsCreatedCounter;
 
-    public ReportService(ReportRepository reportRepository, MeterRegistry meterRegistry) {
+    public ReportService(ReportRepository reportRepository, TrendService trendService, MeterRegistry meterRegistry) {
         this.reportRepository = reportRepository;
+        this.trendService = trendService;
         this.meterRegistry = meterRegistry;
 
         // Initialize custom metrics
@@ -28,28 +49,209 @@ public class ReportService {
                 .register(meterRegistry);
     }
 
+    /**
+     * Loads all reports of a user with their scores and chat in two queries,
+     * independent of how many reports there are.
+     */
+    @Transactional(readOnly = true)
     public List<Report> getByUserEmail(String email) {
-        return reportRepository.findByUserEmail(email);
+        List<Report> reports = reportRepository.findByUserEmail(email);
+        if (!reports.isEmpty()) {
+            reportRepository.fetchChat(reports);
+        }
+        return reports;
     }
 
+    /**
+     * Returns one page of a user's reports in (year, week) order, optionally limited
+     * to the inclusive range {@code from}..{@code to}. Pass the previous page's
+     * {@code nextCursor} as {@code after} to continue. Costs three queries per page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Report> getPage(String email, IsoWeek after, IsoWeek from, IsoWeek to, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Both bounds become one exclusive lower bound: "from W" is "after W-1"
+        int afterYear = 0;
+        int afterWeek = 0;
+        if (from != null) {
+            afterYear = from.year();
+            afterWeek = from.week() - 1;
+        }
+        if (after != null && (from == null || after.compareTo(from) >= 0)) {
+            afterYear = after.year();
+            afterWeek = after.week();
+        }
+        int toYear = to != null ? to.year() : 9999;
+        int toWeek = to != null ? to.week() : 53;
+
+        // One extra row tells us whether there is a next page
+        List<Report> rows = reportRepository.findPage(email, afterYear, afterWeek, toYear, toWeek,
+                PageRequest.of(0, size + 1));
+        boolean hasMore = rows.size() > size;
+        List<Report> items = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+
+        if (!items.isEmpty()) {
+            reportRepository.fetchScores(items);
+            reportRepository.fetchChat(items);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Report last = items.get(items.size() - 1);
+            nextCursor = new IsoWeek(last.getYear(), last.getCalendarWeek()).toString();
+        }
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    // Collections are initialized here so that serializing the report needs no
+    // further queries outside the (replica-routed) read-only transaction
+    @Transactional(readOnly = true)
     public Optional<Report> getByWeekAndYear(String email, int week, int year) {
-        return reportRepository.findByCalendarWeekAndYearAndUserEmail(week, year, email);
+        Optional<Report> report = reportRepository.findByCalendarWeekAndYearAndUserEmail(week, year, email);
+        report.ifPresent(r -> {
+            Hibernate.initialize(r.getScores());
+            Hibernate.initialize(r.getChat());
+        });
+        return report;
+    }
+
+    // Lets conditional requests be answered without loading the report
+    @Transactional(readOnly = true)
+    public Optional<EntityVersion> findVersion(String email, int week, int year) {
+        return reportRepository.findVersionByWeek(email, year, week);
+    }
+
+    // Read-write, i.e. from the primary: a write's precondition checked against a
+    // lagging replica could pass for a version the primary has already moved past
+    @Transactional
+    public Optional<EntityVersion> findVersionForWrite(String email, int week, int year) {
+        return reportRepository.findVersionByWeek(email, year, week);
     }
 
+    @Transactional(readOnly = true)
+    public List<EntityVersion> findVersions(String email) {
+        return reportRepository.findVersions(email);
+    }
+
+    /**
+     * Creates the user's report for the week or updates the existing one. The row is
+     * inserted with a single upsert, so concurrent saves of the same week cannot both
+     * try to insert; updates go through the entity and its version check. Scores and
+     * chat are applied to the stored report afterwards; a {@code null} collection
+     * leaves the stored one untouched.
+     */
+    @Transactional
     public Report addOrUpdate(Report report) {
-        Optional<Report> existing = reportRepository.findByCalendarWeekAndYearAndUserEmail(
-                report.getCalendarWeek(), report.getYear(), report.getUserEmail());
+        return addOrUpdate(report, null);
+    }
 
-        if (existing.isPresent()) {
-            report.setId(existing.get().getId());
-        } else {
+    /**
+     * Like {@link #addOrUpdate(Report)}, but throws
+     * {@link ObjectOptimisticLockingFailureException} if {@code expectedVersion} is
+     * given and the stored report has moved on since.
+     */
+    @Transactional
+    public Report addOrUpdate(Report report, Long expectedVersion) {
+        ReportUpsertResult result = reportRepository.upsert(report);
+        if (result.inserted()) {
             reportsCreatedCounter.increment();
         }
 
-        return reportRepository.save(report);
+        Report stored = reportRepository.findById(result.id())
+                .orElseThrow(() -> new IllegalStateException("Upserted report " + result.id() + " not found"));
+        if (expectedVersion != null && !expectedVersion.equals(stored.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Report.class, result.id());
+        }
+        // The upsert leaves an existing row alone; changing the notes here bumps its version
+        stored.setNotes(report.getNotes());
+
+        if (report.getScores() != null) {
+            // Only categories whose score changed or was removed need their trend recomputed;
+            // clients send the whole map back, mostly unchanged
+            Set<String> changed = new HashSet<>();
+            if (stored.getScores() == null) {
+                changed.addAll(report.getScores().keySet());
+                stored.setScores(new HashMap<>(report.getScores()));
+            } else {
+                Map<String, Float> before = stored.getScores();
+                report.getScores().forEach((category, score) -> {
+                    if (!before.containsKey(category) || !Objects.equals(before.get(category), score)) {
+                        changed.add(category);
+                    }
+                });
+                before.keySet().stream()
+                        .filter(category -> !report.getScores().containsKey(category))
+                        .forEach(changed::add);
+                before.keySet().retainAll(report.getScores().keySet());
+                before.putAll(report.getScores());
+            }
+            if (!changed.isEmpty()) {
+                trendService.recompute(report.getUserEmail(), changed);
+            }
+        }
+        if (report.getChat() != null) {
+            mergeChat(stored, report.getChat());
+        }
+        return stored;
+    }
+
+    // Keeps the stored messages the client still lists (by id) and appends the new ones,
+    // instead of rewriting the whole conversation
+    private static void mergeChat(Report stored, List<ChatMessage> incoming) {
+        Set<Long> kept = incoming.stream()
+                .map(ChatMessage::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        if (stored.getChat() != null) {
+            stored.getChat().removeIf(message -> !kept.contains(message.getId()));
+        }
+        incoming.stream()
+                .filter(message -> message.getId() == null)
+                .forEach(stored::addMessage);
+    }
+
+    /**
+     * Upserts or deletes ({@code null} value) only the given category scores of the
+     * user's report for the week. Returns {@code false} if there is no such report.
+     */
+    @Transactional
+    public boolean patchScores(String email, int year, int week, Map<String, Float> changes) {
+        Optional<Long> reportId = reportRepository.findIdByWeek(email, year, week);
+        if (reportId.isEmpty()) {
+            return false;
+        }
+        reportRepository.patchScores(reportId.get(), changes);
+        trendService.recompute(email, changes.keySet());
+        return true;
+    }
+
+    /**
+     * Deletes the user's report for the week and returns the ids of what was deleted.
+     */
+    @Transactional
+    public List<Long> delete(String email, int week, int year) {
+        return delete(email, week, year, null);
     }
 
-    public void delete(String email, int week, int year) {
-        reportRepository.deleteByCalendarWeekAndYearAndUserEmail(week, year, email);
+    /**
+     * Like {@link #delete(String, int, int)}, but throws
+     * {@link ObjectOptimisticLockingFailureException} if {@code expectedVersion} is
+     * given and the report is gone or has moved on since.
+     */
+    @Transactional
+    public List<Long> delete(String email, int week, int year, Long expectedVersion) {
+        List<String> categories = reportRepository.findScoredCategoriesByWeek(email, year, week);
+        List<Report> deleted = reportRepository.deleteByCalendarWeekAndYearAndUserEmail(week, year, email);
+        if (expectedVersion != null
+                && (deleted.isEmpty() || !expectedVersion.equals(deleted.get(0).getVersion()))) {
+            throw new ObjectOptimisticLockingFailureException(Report.class, deleted.isEmpty() ? null : deleted.get(0).getId());
+        }
+        // Flushed here: the delete is versioned (where id = ? and version = ?), so a
+        // concurrent update surfaces to the caller instead of being deleted unseen
+        reportRepository.flush();
+        trendService.recompute(email, categories);
+        return deleted.stream().map(Report::getId).toList();
     }
 }
\ No newline at end of file
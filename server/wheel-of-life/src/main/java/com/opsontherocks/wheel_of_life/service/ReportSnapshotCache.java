@@ -0,0 +1,101 @@
+package com.opsontherocks.wheel_of_life.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.opsontherocks.wheel_of_life.dto.IsoWeek;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.EntityVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON of finished reports (weeks before the current one, which
+ * hardly change), optionally gzipped ahead of time. An entry is only served
+ * while its version is the report's current one, so writes never have to wait
+ * for an eviction to be correct; evicting just frees the memory early.
+ */
+@Service
+public class ReportSnapshotCache {
+
+    /**
+     * A report serialized at {@code version}; {@code gzip} is {@code null} when
+     * pre-compression is off.
+     */
+    public record Snapshot(long id, long version, byte[] json, byte[] gzip) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean precompress;
+    private final Cache<Long, Snapshot> snapshotsById;
+
+    public ReportSnapshotCache(ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${reports.snapshot-cache.max-bytes:67108864}") long maxBytes,
+                               @Value("${reports.snapshot-cache.gzip:true}") boolean precompress) {
+        this.objectMapper = objectMapper;
+        this.precompress = precompress;
+        // Bounded by the serialized size, so a few huge chats cannot crowd out memory
+        this.snapshotsById = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, Snapshot snapshot) -> snapshot.json().length
+                        + (snapshot.gzip() != null ? snapshot.gzip().length : 0))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshotsById, "report_snapshots");
+    }
+
+    /**
+     * Returns the cached snapshot if it is at {@code current}'s version, otherwise
+     * serializes what {@code loader} returns. Empty if the loader finds no report.
+     */
+    public Optional<Snapshot> get(EntityVersion current, Supplier<Optional<Report>> loader) {
+        Snapshot cached = snapshotsById.getIfPresent(current.id());
+        if (cached != null && cached.version() == current.version()) {
+            return Optional.of(cached);
+        }
+        return loader.get().map(this::snapshot);
+    }
+
+    public void evict(long reportId) {
+        snapshotsById.invalidate(reportId);
+    }
+
+    private Snapshot snapshot(Report report) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(report);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize report " + report.getId(), e);
+        }
+        Snapshot snapshot = new Snapshot(report.getId(), report.getVersion(), json, precompress ? gzip(json) : null);
+
+        if (IsoWeek.of(LocalDate.now()).compareTo(new IsoWeek(report.getYear(), report.getCalendarWeek())) > 0) {
+            // A slower request may finish after a newer one; keep whichever is newer
+            snapshotsById.asMap().merge(report.getId(), snapshot,
+                    (existing, added) -> added.version() >= existing.version() ? added : existing);
+        }
+        return snapshot;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
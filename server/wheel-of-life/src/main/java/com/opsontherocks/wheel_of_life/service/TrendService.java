@@ -0,0 +1,204 @@
+package com.opsontherocks.wheel_of_life.service;
+
+import com.opsontherocks.wheel_of_life.dto.IsoWeek;
+import com.opsontherocks.wheel_of_life.dto.ScorePoint;
+import com.opsontherocks.wheel_of_life.dto.TrendSummary;
+import com.opsontherocks.wheel_of_life.dto.TrendsResponse;
+import com.opsontherocks.wheel_of_life.entity.Category;
+import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
+import com.opsontherocks.wheel_of_life.entity.CategoryTrend;
+import com.opsontherocks.wheel_of_life.repository.CategoryRepository;
+import com.opsontherocks.wheel_of_life.repository.CategoryTrendRepository;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the per-category trend summary table. Writers call
+ * {@link #recompute(String, Collection)} with the categories they touched; only
+ * those categories' scores are re-read, and reading trends is a single lookup.
+ */
+@Service
+public class TrendService {
+
+    static final int MOVING_AVERAGE_WINDOW = 4;
+    static final int SLOPE_WINDOW = 8;
+
+    private final ReportRepository reportRepository;
+    private final CategoryTrendRepository trendRepository;
+    private final CategoryRepository categoryRepository;
+
+    public TrendService(ReportRepository reportRepository,
+                        CategoryTrendRepository trendRepository,
+                        CategoryRepository categoryRepository) {
+        this.reportRepository = reportRepository;
+        this.trendRepository = trendRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Brings the trends of the given categories in line with the user's current
+     * scores. Runs in the caller's transaction, after its writes.
+     */
+    @Transactional
+    public void recompute(String email, Collection<String> categories) {
+        Set<String> touched = new HashSet<>(categories);
+        if (touched.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<ScorePoint>> points = reportRepository.findScorePoints(email, touched).stream()
+                .collect(Collectors.groupingBy(ScorePoint::category));
+
+        // Upserts rather than load-then-save: two writers adding the first score of a
+        // category would otherwise both insert and one would fail on the unique index
+        Set<String> unscored = new HashSet<>();
+        for (String category : touched) {
+            List<ScorePoint> history = points.get(category);
+            if (history == null) {
+                unscored.add(category);
+                continue;
+            }
+            CategoryTrend trend = new CategoryTrend(email, category);
+            summarize(history, trend);
+            trendRepository.upsert(trend);
+        }
+        if (!unscored.isEmpty()) {
+            trendRepository.deleteByUserEmailAndCategoryNameIn(email, unscored);
+        }
+    }
+
+    /**
+     * Trends per category and per category group. Users whose reports predate the
+     * summary table get it filled on first access.
+     */
+    @Transactional
+    public TrendsResponse getTrends(String email) {
+        List<CategoryTrend> trends = trendRepository.findByUserEmail(email);
+        if (trends.isEmpty()) {
+            List<String> scored = reportRepository.findScoredCategories(email);
+            if (!scored.isEmpty()) {
+                recompute(email, scored);
+                trends = trendRepository.findByUserEmail(email);
+            }
+        }
+
+        Map<String, CategoryGroup> groupOf = new HashMap<>();
+        for (Category category : categoryRepository.findByUserEmail(email)) {
+            groupOf.put(category.getName(), category.getCategoryGroup());
+        }
+
+        List<TrendSummary> categories = trends.stream()
+                .sorted(Comparator.comparing(CategoryTrend::getCategoryName))
+                .map(TrendService::toSummary)
+                .toList();
+
+        // Scores of categories the user has since deleted count as "Other"
+        Map<CategoryGroup, List<CategoryTrend>> byGroup = new EnumMap<>(CategoryGroup.class);
+        for (CategoryTrend trend : trends) {
+            CategoryGroup group = groupOf.getOrDefault(trend.getCategoryName(), CategoryGroup.Other);
+            byGroup.computeIfAbsent(group, g -> new ArrayList<>()).add(trend);
+        }
+        List<TrendSummary> groups = byGroup.entrySet().stream()
+                .map(entry -> groupSummary(entry.getKey().name(), entry.getValue()))
+                .toList();
+
+        return new TrendsResponse(categories, groups);
+    }
+
+    // history is in (year, week) order
+    static void summarize(List<ScorePoint> history, CategoryTrend trend) {
+        int n = history.size();
+        ScorePoint latest = history.get(n - 1);
+
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (ScorePoint point : history) {
+            min = Math.min(min, point.score());
+            max = Math.max(max, point.score());
+        }
+
+        double windowSum = 0;
+        List<ScorePoint> averaged = history.subList(Math.max(0, n - MOVING_AVERAGE_WINDOW), n);
+        for (ScorePoint point : averaged) {
+            windowSum += point.score();
+        }
+
+        trend.setReportCount(n);
+        trend.setLatestYear(latest.year());
+        trend.setLatestWeek(latest.week());
+        trend.setLatestScore(latest.score());
+        trend.setMovingAverage(windowSum / averaged.size());
+        trend.setMinScore(min);
+        trend.setMaxScore(max);
+        trend.setSlope(slope(history.subList(Math.max(0, n - SLOPE_WINDOW), n)));
+        trend.setWeekOverWeekDelta(n > 1 ? latest.score() - history.get(n - 2).score() : null);
+    }
+
+    // Least squares over (week number, score), so gaps between reports are accounted for
+    private static double slope(List<ScorePoint> points) {
+        int n = points.size();
+        if (n < 2) {
+            return 0;
+        }
+        long origin = new IsoWeek(points.get(0).year(), points.get(0).week()).toEpochWeek();
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+        for (ScorePoint point : points) {
+            double x = new IsoWeek(point.year(), point.week()).toEpochWeek() - origin;
+            double y = point.score();
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+        double denominator = n * sumXX - sumX * sumX;
+        return denominator == 0 ? 0 : (n * sumXY - sumX * sumY) / denominator;
+    }
+
+    private static TrendSummary toSummary(CategoryTrend trend) {
+        return new TrendSummary(
+                trend.getCategoryName(),
+                trend.getReportCount(),
+                new IsoWeek(trend.getLatestYear(), trend.getLatestWeek()).toString(),
+                trend.getLatestScore(),
+                trend.getMovingAverage(),
+                trend.getMinScore(),
+                trend.getMaxScore(),
+                trend.getSlope(),
+                trend.getWeekOverWeekDelta() != null ? trend.getWeekOverWeekDelta().doubleValue() : null);
+    }
+
+    private static TrendSummary groupSummary(String name, List<CategoryTrend> trends) {
+        IsoWeek latest = trends.stream()
+                .map(t -> new IsoWeek(t.getLatestYear(), t.getLatestWeek()))
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+        List<Float> deltas = trends.stream()
+                .map(CategoryTrend::getWeekOverWeekDelta)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new TrendSummary(
+                name,
+                trends.stream().mapToInt(CategoryTrend::getReportCount).max().orElse(0),
+                latest.toString(),
+                trends.stream().mapToDouble(CategoryTrend::getLatestScore).average().orElse(0),
+                trends.stream().mapToDouble(CategoryTrend::getMovingAverage).average().orElse(0),
+                trends.stream().mapToDouble(CategoryTrend::getMinScore).min().orElse(0),
+                trends.stream().mapToDouble(CategoryTrend::getMaxScore).max().orElse(0),
+                trends.stream().mapToDouble(CategoryTrend::getSlope).average().orElse(0),
+                deltas.isEmpty() ? null : deltas.stream().mapToDouble(Float::doubleValue).average().orElse(0));
+    }
+}
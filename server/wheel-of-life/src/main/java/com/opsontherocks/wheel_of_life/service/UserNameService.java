@@ -0,0 +1,51 @@
+package com.opsontherocks.wheel_of_life.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Display names for access tokens issued without the name claim. Those tokens
+ * only live until their next refresh, so this cached lookup of the
+ * authentication service's {@code users} table can go once they are gone.
+ */
+@Service
+public class UserNameService {
+
+    private final JdbcTemplate jdbc;
+    private final Cache<String, String> namesByEmail;
+
+    public UserNameService(JdbcTemplate jdbc,
+                           MeterRegistry meterRegistry,
+                           @Value("${users.name-cache.max-size:10000}") long maxSize,
+                           @Value("${users.name-cache.ttl:PT10M}") Duration ttl) {
+        this.jdbc = jdbc;
+        this.namesByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, namesByEmail, "user_names");
+    }
+
+    /**
+     * Unknown users are not cached, so a later registration is picked up right away.
+     */
+    public Optional<String> findName(String email) {
+        return Optional.ofNullable(namesByEmail.get(email, this::load));
+    }
+
+    private String load(String email) {
+        return jdbc.query("SELECT name FROM users WHERE email = ?", (rs, rowNum) -> rs.getString(1), email)
+                .stream()
+                .findFirst()
+                .orElse(null);
+    }
+}
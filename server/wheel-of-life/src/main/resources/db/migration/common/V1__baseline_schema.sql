@@ -0,0 +1,77 @@
+-- Schema of the wheel-of-life service. Every statement is idempotent so that
+-- databases previously managed by ddl-auto=update are brought up to date as well.
+-- Each index is named after the repository finders it serves.
+
+CREATE SEQUENCE IF NOT EXISTS category_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS report_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS chat_message_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS category_trend_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS category (
+    id             bigint       NOT NULL PRIMARY KEY,
+    name           varchar(255) NOT NULL,
+    category_group varchar(255) NOT NULL,
+    user_email     varchar(255) NOT NULL
+);
+
+-- Before this index, racing default-category inserts could give a user the same
+-- category twice. Keep the oldest row of each (user_email, name); scores refer to
+-- categories by name, so nothing points at the rows removed here.
+DELETE FROM category c
+WHERE EXISTS (SELECT 1 FROM category d WHERE d.user_email = c.user_email AND d.name = c.name AND d.id < c.id);
+
+-- CategoryRepository.findByUserEmail and insertDefaults (leading column),
+-- and the conflict target of the default-category insert
+CREATE UNIQUE INDEX IF NOT EXISTS ux_category_user_name ON category (user_email, name);
+
+CREATE TABLE IF NOT EXISTS report (
+    id            bigint       NOT NULL PRIMARY KEY,
+    calendar_week integer      NOT NULL,
+    year          integer      NOT NULL,
+    user_email    varchar(255) NOT NULL,
+    notes         text
+);
+
+-- ReportRepository.findByUserEmail, findPage, streamByUserEmail, findWeeksByUserEmail,
+-- findIdByWeek and findByCalendarWeekAndYearAndUserEmail; also the upsert's conflict target
+CREATE UNIQUE INDEX IF NOT EXISTS ux_report_user_year_week ON report (user_email, year, calendar_week);
+-- Superseded by the unique index above
+DROP INDEX IF EXISTS idx_report_user_year_week;
+
+-- The primary key leads with report_id, which covers fetchScores and the score joins
+CREATE TABLE IF NOT EXISTS report_scores (
+    report_id     bigint       NOT NULL,
+    category_name varchar(255) NOT NULL,
+    score         real,
+    CONSTRAINT pk_report_scores PRIMARY KEY (report_id, category_name),
+    CONSTRAINT fk_report_scores_report FOREIGN KEY (report_id) REFERENCES report (id)
+);
+
+CREATE TABLE IF NOT EXISTS chat_message (
+    id        bigint       NOT NULL PRIMARY KEY,
+    message   text         NOT NULL,
+    sender    varchar(255) NOT NULL,
+    report_id bigint       NOT NULL,
+    CONSTRAINT fk_chat_message_report FOREIGN KEY (report_id) REFERENCES report (id)
+);
+
+-- ChatMessageRepository.findPage and ReportRepository.fetchChat
+CREATE INDEX IF NOT EXISTS idx_chat_message_report_id ON chat_message (report_id, id);
+
+CREATE TABLE IF NOT EXISTS category_trend (
+    id                   bigint           NOT NULL PRIMARY KEY,
+    user_email           varchar(255)     NOT NULL,
+    category_name        varchar(255)     NOT NULL,
+    report_count         integer          NOT NULL,
+    latest_year          integer          NOT NULL,
+    latest_week          integer          NOT NULL,
+    latest_score         real             NOT NULL,
+    moving_average       double precision NOT NULL,
+    min_score            real             NOT NULL,
+    max_score            real             NOT NULL,
+    slope                double precision NOT NULL,
+    week_over_week_delta real
+);
+
+-- CategoryTrendRepository.findByUserEmail and findByUserEmailAndCategoryNameIn
+CREATE UNIQUE INDEX IF NOT EXISTS ux_category_trend_user_category ON category_trend (user_email, category_name);
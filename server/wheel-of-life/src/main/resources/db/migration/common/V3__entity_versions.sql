@@ -0,0 +1,3 @@
+-- Optimistic-locking versions of Report and Category; they also back the ETags
+ALTER TABLE report ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE category ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
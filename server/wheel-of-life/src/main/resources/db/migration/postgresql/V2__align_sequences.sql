@@ -0,0 +1,23 @@
+-- Rows created while the entities still used identity columns have ids the id
+-- sequences know nothing about; move each sequence past the highest existing id.
+-- Never moves a sequence backwards.
+SELECT setval('report_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM report), (SELECT last_value FROM report_seq)));
+SELECT setval('chat_message_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM chat_message), (SELECT last_value FROM chat_message_seq)));
+SELECT setval('category_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM category), (SELECT last_value FROM category_seq)));
+SELECT setval('category_trend_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM category_trend), (SELECT last_value FROM category_trend_seq)));
+
+-- ddl-auto created unnamed unique constraints that duplicate the ux_ indexes of V1
+DO $$
+DECLARE
+    legacy record;
+BEGIN
+    FOR legacy IN
+        SELECT conrelid::regclass AS tbl, conname
+        FROM pg_constraint
+        WHERE contype = 'u'
+          AND conrelid IN ('report'::regclass, 'category_trend'::regclass)
+          AND conname NOT LIKE 'ux\_%'
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', legacy.tbl, legacy.conname);
+    END LOOP;
+END $$;
@@ -0,0 +1,61 @@
+package com.opsontherocks.wheel_of_life;
+
+//Provisions default categories against an in-memory database and checks that the
+// templates are inserted once, never on top of existing categories, and never twice by name.
+
+import com.opsontherocks.wheel_of_life.entity.Category;
+import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
+import com.opsontherocks.wheel_of_life.repository.CategoryRepository;
+import com.opsontherocks.wheel_of_life.service.DefaultCategories;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaServiceTest
+public class CategoryDefaultsTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void insertDefaults_shouldInsertAllTemplatesOnlyOnce() {
+        String email = "new-user@example.com";
+
+        assertEquals(DefaultCategories.TEMPLATES.size(),
+                categoryRepository.insertDefaults(email, DefaultCategories.TEMPLATES));
+        assertEquals(0, categoryRepository.insertDefaults(email, DefaultCategories.TEMPLATES));
+
+        List<Category> categories = categoryRepository.findByUserEmail(email);
+        assertEquals(DefaultCategories.TEMPLATES.size(), categories.size());
+        assertTrue(categories.stream().allMatch(c -> c.getId() != null && c.getCategoryGroup() != null));
+    }
+
+    @Test
+    void insertDefaults_shouldSkipUsersWhoAlreadyHaveCategories() {
+        String email = "existing-user@example.com";
+        categoryRepository.save(new Category("Chess", CategoryGroup.Other, email));
+        entityManager.flush();
+
+        assertEquals(0, categoryRepository.insertDefaults(email, DefaultCategories.TEMPLATES));
+        assertEquals(1, categoryRepository.findByUserEmail(email).size());
+    }
+
+    @Test
+    void save_shouldRejectDuplicateNamePerUser() {
+        String email = "duplicate@example.com";
+        categoryRepository.save(new Category("Growth", CategoryGroup.Career, email));
+        categoryRepository.save(new Category("Growth", CategoryGroup.Health, "other@example.com"));
+        entityManager.flush();
+
+        categoryRepository.save(new Category("Growth", CategoryGroup.Other, email));
+        assertThrows(DataIntegrityViolationException.class, () -> categoryRepository.flush());
+    }
+}
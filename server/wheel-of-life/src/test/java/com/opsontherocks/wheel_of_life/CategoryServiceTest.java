@@ -0,0 +1,108 @@
+package com.opsontherocks.wheel_of_life;
+
+//Unit tests the per-user category cache: repeated reads are served from memory, every write
+// drops the owner's entry (after commit when in a transaction), and hits and misses are reported to Micrometer.
+
+import com.opsontherocks.wheel_of_life.entity.Category;
+import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
+import com.opsontherocks.wheel_of_life.repository.CategoryRepository;
+import com.opsontherocks.wheel_of_life.service.CategoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CategoryServiceTest {
+
+    private static final String EMAIL = "test@example.com";
+
+    private CategoryRepository categoryRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private CategoryService categoryService;
+
+    @BeforeEach
+    void setUp() {
+        categoryRepository = mock(CategoryRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        categoryService = new CategoryService(categoryRepository, TransactionOperations.withoutTransaction(), meterRegistry, 100, Duration.ofMinutes(10));
+        when(categoryRepository.findByUserEmail(EMAIL))
+                .thenReturn(List.of(new Category("Growth", CategoryGroup.Career, EMAIL)));
+    }
+
+    @Test
+    void getByUserEmail_shouldQueryOnceAndReportHits() {
+        categoryService.getByUserEmail(EMAIL);
+        categoryService.getByUserEmail(EMAIL);
+        List<Category> third = categoryService.getByUserEmail(EMAIL);
+
+        assertEquals(1, third.size());
+        verify(categoryRepository, times(1)).findByUserEmail(EMAIL);
+        assertEquals(2.0, meterRegistry.get("cache.gets")
+                .tag("cache", "categories_by_user")
+                .tag("result", "hit")
+                .functionCounter()
+                .count());
+    }
+
+    @Test
+    void writes_shouldInvalidateTheOwnersEntry() {
+        Category category = new Category("Family", CategoryGroup.Relationships, EMAIL);
+        category.setId(5L);
+        when(categoryRepository.save(category)).thenReturn(category);
+        when(categoryRepository.findById(5L)).thenReturn(Optional.of(category));
+
+        categoryService.getByUserEmail(EMAIL);
+        categoryService.add(category);
+        categoryService.getByUserEmail(EMAIL);
+        categoryService.update(category);
+        categoryService.getByUserEmail(EMAIL);
+        categoryService.deleteById(5L);
+        categoryService.getByUserEmail(EMAIL);
+
+        verify(categoryRepository, times(4)).findByUserEmail(EMAIL);
+        verify(categoryRepository).delete(category);
+    }
+
+    @Test
+    void cacheMisses_shouldBeLoadedInTheServicesOwnTransaction() {
+        TransactionOperations transactions = mock(TransactionOperations.class);
+        when(transactions.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        categoryService = new CategoryService(categoryRepository, transactions, meterRegistry, 100, Duration.ofMinutes(10));
+
+        categoryService.getByUserEmail(EMAIL);
+        categoryService.getByUserEmail(EMAIL);
+
+        verify(transactions, times(1)).execute(any());
+    }
+
+    @Test
+    void evictInsideTransaction_shouldWaitForTheCommit() {
+        categoryService.getByUserEmail(EMAIL);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            categoryService.evict(EMAIL);
+            categoryService.getByUserEmail(EMAIL);
+            verify(categoryRepository, times(1)).findByUserEmail(EMAIL);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        categoryService.getByUserEmail(EMAIL);
+        verify(categoryRepository, times(2)).findByUserEmail(EMAIL);
+    }
+}
@@ -0,0 +1,91 @@
+package com.opsontherocks.wheel_of_life;
+
+//Appends chat messages to a report in an in-memory database and checks that an append
+// never loads the existing conversation and that paging returns every message once, in order.
+
+import com.opsontherocks.wheel_of_life.dto.CursorPage;
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.service.ChatService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaServiceTest
+@Import(ChatService.class)
+public class ChatServiceTest {
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void append_shouldInsertOneRowWithoutLoadingTheConversation() {
+        String email = "chat@example.com";
+        Report report = new Report(20, 2025, email);
+        List<ChatMessage> history = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            history.add(new ChatMessage("Message " + i, i % 2 == 0 ? ChatMessage.Sender.AI : ChatMessage.Sender.USER));
+        }
+        report.setChat(history);
+        reportRepository.save(report);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        ChatMessage saved = chatService.append(email, 2025, 20, ChatMessage.Sender.USER, "One more thing")
+                .orElseThrow();
+        entityManager.flush();
+
+        assertNotNull(saved.getId());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void append_shouldReturnEmptyWithoutReport() {
+        assertTrue(chatService.append("nobody@example.com", 2025, 1, ChatMessage.Sender.USER, "Hi").isEmpty());
+        assertTrue(chatService.getPage("nobody@example.com", 2025, 1, null, 10).isEmpty());
+    }
+
+    @Test
+    void getPage_shouldWalkTheConversationInOrder() {
+        String email = "paged-chat@example.com";
+        reportRepository.save(new Report(21, 2025, email));
+        entityManager.flush();
+        for (int i = 0; i < 7; i++) {
+            chatService.append(email, 2025, 21, ChatMessage.Sender.USER, "Turn " + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> seen = new ArrayList<>();
+        Long after = null;
+        do {
+            CursorPage<ChatMessage> page = chatService.getPage(email, 2025, 21, after, 3).orElseThrow();
+            page.items().forEach(message -> seen.add(message.getMessage()));
+            after = page.nextCursor() == null ? null : Long.valueOf(page.nextCursor());
+        } while (after != null);
+
+        assertEquals(List.of("Turn 0", "Turn 1", "Turn 2", "Turn 3", "Turn 4", "Turn 5", "Turn 6"), seen);
+    }
+}
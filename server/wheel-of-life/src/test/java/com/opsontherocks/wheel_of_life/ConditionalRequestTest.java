@@ -0,0 +1,266 @@
+package com.opsontherocks.wheel_of_life;
+
+//Unit tests the ETag handling of UserController: revalidations are answered with 304
+// from the version alone, lists are tagged by all of their (id, version) pairs, and writes with a
+// stale If-Match are rejected with 412 before touching data.
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opsontherocks.wheel_of_life.controller.UserController;
+import com.opsontherocks.wheel_of_life.entity.Category;
+import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.EntityVersion;
+import com.opsontherocks.wheel_of_life.service.CategoryService;
+import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.ReportSnapshotCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConditionalRequestTest {
+
+    private static final String EMAIL = "test@example.com";
+    // MD5 of "7-2,8-3", the (id, version) pairs in id order
+    private static final String REPORTS_7_2_AND_8_3 = "\"53a6a377bbe96bf70ce6c208f5a0c4ca\"";
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Spy
+    private ReportSnapshotCache reportSnapshots =
+            new ReportSnapshotCache(new ObjectMapper(), new SimpleMeterRegistry(), 1 << 20, true);
+
+    @InjectMocks
+    private UserController userController;
+
+    private MockHttpServletRequest servletRequest;
+    private MockHttpServletResponse servletResponse;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        servletResponse = new MockHttpServletResponse();
+    }
+
+    private ServletWebRequest request(String method, String header, String etag) {
+        servletRequest = new MockHttpServletRequest(method, "/users/me");
+        if (header != null) {
+            servletRequest.addHeader(header, etag);
+        }
+        return new ServletWebRequest(servletRequest, servletResponse);
+    }
+
+    @Test
+    void getReport_shouldAnswerMatchingEtagWithoutLoadingTheReport() {
+        when(reportService.findVersion(EMAIL, 27, 2025)).thenReturn(Optional.of(new EntityVersion(7, 3)));
+
+        ResponseEntity<?> response = userController.getReport(2025, 27, null, EMAIL,
+                request("GET", HttpHeaders.IF_NONE_MATCH, "\"7-3\""));
+
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), servletResponse.getStatus());
+        assertEquals("\"7-3\"", servletResponse.getHeader(HttpHeaders.ETAG));
+        verify(reportService, never()).getByWeekAndYear(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getReport_shouldReturnReportWithEtagWhenChanged() {
+        Report report = new Report(27, 2025, EMAIL);
+        report.setId(7L);
+        report.setVersion(4L);
+        when(reportService.findVersion(EMAIL, 27, 2025)).thenReturn(Optional.of(new EntityVersion(7, 4)));
+        when(reportService.getByWeekAndYear(EMAIL, 27, 2025)).thenReturn(Optional.of(report));
+
+        ResponseEntity<?> response = userController.getReport(2025, 27, null, EMAIL,
+                request("GET", HttpHeaders.IF_NONE_MATCH, "\"7-3\""));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"7-4\"", response.getHeaders().getETag());
+        assertInstanceOf(byte[].class, response.getBody());
+    }
+
+    @Test
+    void getReport_shouldTagTheGzipEncodingSeparately() {
+        Report report = new Report(27, 2025, EMAIL);
+        report.setId(7L);
+        report.setVersion(4L);
+        when(reportService.findVersion(EMAIL, 27, 2025)).thenReturn(Optional.of(new EntityVersion(7, 4)));
+        when(reportService.getByWeekAndYear(EMAIL, 27, 2025)).thenReturn(Optional.of(report));
+
+        ResponseEntity<?> response = userController.getReport(2025, 27, "gzip, deflate", EMAIL,
+                request("GET", null, null));
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"7-4-gzip\"", response.getHeaders().getETag());
+
+        response = userController.getReport(2025, 27, "gzip, deflate", EMAIL,
+                request("GET", HttpHeaders.IF_NONE_MATCH, "\"7-4-gzip\""));
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), servletResponse.getStatus());
+        assertEquals("\"7-4-gzip\"", servletResponse.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getAllReports_shouldRevalidateAgainstTheVersions() {
+        when(reportService.findVersions(EMAIL)).thenReturn(List.of(new EntityVersion(8, 3), new EntityVersion(7, 2)));
+
+        ResponseEntity<List<Report>> response = userController.getAllReports(EMAIL,
+                request("GET", HttpHeaders.IF_NONE_MATCH, REPORTS_7_2_AND_8_3));
+
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), servletResponse.getStatus());
+        verify(reportService, never()).getByUserEmail(anyString());
+    }
+
+    // Same count, id sum and version sum as the tagged list, but a different one
+    @Test
+    void getAllReports_shouldNotMatchAnotherListWithTheSameSums() {
+        when(reportService.findVersions(EMAIL)).thenReturn(List.of(new EntityVersion(7, 3), new EntityVersion(8, 2)));
+        when(reportService.getByUserEmail(EMAIL)).thenReturn(List.of());
+
+        ResponseEntity<List<Report>> response = userController.getAllReports(EMAIL,
+                request("GET", HttpHeaders.IF_NONE_MATCH, REPORTS_7_2_AND_8_3));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void getAllReports_shouldTagTheListLikeTheSummary() {
+        Report first = new Report(1, 2025, EMAIL);
+        first.setId(7L);
+        first.setVersion(2L);
+        Report second = new Report(2, 2025, EMAIL);
+        second.setId(8L);
+        second.setVersion(3L);
+        when(reportService.getByUserEmail(EMAIL)).thenReturn(List.of(first, second));
+
+        ResponseEntity<List<Report>> response = userController.getAllReports(EMAIL, request("GET", null, null));
+
+        assertEquals(REPORTS_7_2_AND_8_3, response.getHeaders().getETag());
+        verify(reportService, never()).findVersions(anyString());
+    }
+
+    @Test
+    void findAllCategories_shouldAnswerMatchingEtagFromTheCachedList() {
+        Category category = new Category("Growth", CategoryGroup.Career, EMAIL);
+        category.setId(5L);
+        category.setVersion(1L);
+        when(categoryService.getByUserEmail(EMAIL)).thenReturn(List.of(category));
+
+        ResponseEntity<List<Category>> response = userController.findAll(EMAIL,
+                request("GET", HttpHeaders.IF_NONE_MATCH, "\"19a1de167122a18af369c749f4e40a48\""));
+
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), servletResponse.getStatus());
+    }
+
+    @Test
+    void updateCategory_shouldRejectStaleIfMatch() {
+        when(categoryService.findVersionForWrite(5L, EMAIL)).thenReturn(Optional.of(new EntityVersion(5, 2)));
+        Category payload = new Category();
+        payload.setName("Renamed");
+
+        ResponseEntity<?> response = userController.update(5L, payload, EMAIL,
+                request("PUT", HttpHeaders.IF_MATCH, "\"5-1\""));
+
+        assertNull(response);
+        assertEquals(HttpStatus.PRECONDITION_FAILED.value(), servletResponse.getStatus());
+        verify(categoryService, never()).rename(any(), any(), any(), any());
+    }
+
+    @Test
+    void updateCategory_shouldPassTheMatchedVersionOnAndReturnTheNewEtag() {
+        Category renamed = new Category("Renamed", CategoryGroup.Career, EMAIL);
+        renamed.setId(5L);
+        renamed.setVersion(3L);
+        when(categoryService.findVersionForWrite(5L, EMAIL)).thenReturn(Optional.of(new EntityVersion(5, 2)));
+        when(categoryService.rename(5L, EMAIL, "Renamed", 2L)).thenReturn(Optional.of(renamed));
+        Category payload = new Category();
+        payload.setName("Renamed");
+
+        ResponseEntity<?> response = userController.update(5L, payload, EMAIL,
+                request("PUT", HttpHeaders.IF_MATCH, "\"5-2\""));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"5-3\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void addOrUpdateReport_shouldRejectIfMatchForMissingReport() {
+        when(reportService.findVersionForWrite(EMAIL, 27, 2025)).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = userController.addOrUpdateReport(new Report(27, 2025, EMAIL), EMAIL,
+                request("POST", HttpHeaders.IF_MATCH, "\"7-3\""));
+
+        assertNull(response);
+        assertEquals(HttpStatus.PRECONDITION_FAILED.value(), servletResponse.getStatus());
+        verify(reportService, never()).addOrUpdate(any(), any());
+    }
+
+    @Test
+    void addOrUpdateReport_shouldRejectIfNoneMatchStarForExistingReport() {
+        when(reportService.findVersionForWrite(EMAIL, 27, 2025)).thenReturn(Optional.of(new EntityVersion(7, 3)));
+
+        ResponseEntity<?> response = userController.addOrUpdateReport(new Report(27, 2025, EMAIL), EMAIL,
+                request("POST", HttpHeaders.IF_NONE_MATCH, "*"));
+
+        assertNull(response);
+        assertEquals(HttpStatus.PRECONDITION_FAILED.value(), servletResponse.getStatus());
+    }
+
+    @Test
+    void deleteReport_shouldDeleteWhenIfMatchIsCurrent() {
+        when(reportService.findVersionForWrite(EMAIL, 27, 2025)).thenReturn(Optional.of(new EntityVersion(7, 3)));
+
+        ResponseEntity<Void> response = userController.deleteReport(2025, 27, EMAIL,
+                request("DELETE", HttpHeaders.IF_MATCH, "\"7-3\""));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(reportService).delete(EMAIL, 27, 2025, 3L);
+    }
+
+    @Test
+    void deleteCategory_shouldPassTheMatchedVersionOn() {
+        when(categoryService.findVersionForWrite(5L, EMAIL)).thenReturn(Optional.of(new EntityVersion(5, 2)));
+
+        ResponseEntity<Void> response = userController.delete(5L, EMAIL,
+                request("DELETE", HttpHeaders.IF_MATCH, "\"5-2\""));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(categoryService).deleteById(5L, 2L);
+    }
+
+    @Test
+    void writes_shouldNotLookUpVersionsWithoutPreconditions() {
+        userController.deleteReport(2025, 27, EMAIL, request("DELETE", null, null));
+
+        verify(reportService, never()).findVersionForWrite(anyString(), anyInt(), anyInt());
+        verify(reportService).delete(EMAIL, 27, 2025, null);
+    }
+
+    @Test
+    void lostRace_shouldMapToPreconditionFailedOnlyForConditionalWrites() {
+        assertEquals(HttpStatus.PRECONDITION_FAILED,
+                userController.onConcurrentUpdate(request("PUT", HttpHeaders.IF_MATCH, "\"5-2\"")).getStatusCode());
+        assertEquals(HttpStatus.CONFLICT,
+                userController.onConcurrentUpdate(request("PUT", null, null)).getStatusCode());
+    }
+}
@@ -0,0 +1,200 @@
+package com.opsontherocks.wheel_of_life;
+
+//Calls the read endpoints of UserController through MockMvc against an in-memory database, JSON
+// serialization of the lazy scores and chat included, and fails when one exceeds its query budget;
+// also checks that walking report pages and loading all reports cost a constant number of queries.
+
+import com.opsontherocks.wheel_of_life.controller.UserController;
+import com.opsontherocks.wheel_of_life.dto.CursorPage;
+import com.opsontherocks.wheel_of_life.dto.IsoWeek;
+import com.opsontherocks.wheel_of_life.entity.Category;
+import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.metrics.RequestDbMetricsConfig;
+import com.opsontherocks.wheel_of_life.repository.CategoryRepository;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.service.CategoryService;
+import com.opsontherocks.wheel_of_life.service.ChatService;
+import com.opsontherocks.wheel_of_life.service.ReportExportService;
+import com.opsontherocks.wheel_of_life.service.ReportImportService;
+import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.ReportSnapshotCache;
+import com.opsontherocks.wheel_of_life.service.TrendService;
+import com.opsontherocks.wheel_of_life.service.UserNameService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@JpaServiceTest
+@Import({UserController.class, UserNameService.class, CategoryService.class, ReportService.class,
+        ReportSnapshotCache.class, ReportExportService.class, ReportImportService.class, ChatService.class,
+        TrendService.class, RequestDbMetricsConfig.class})
+public class EndpointQueryBudgetTest {
+
+    private static final String EMAIL = "budget@example.com";
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(EMAIL, null, List.of()));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void seed(int reportCount) {
+        for (String name : List.of("Finances", "Friends", "Growth")) {
+            categoryRepository.save(new Category(name, CategoryGroup.Other, EMAIL));
+        }
+        for (int week = 1; week <= reportCount; week++) {
+            reportRepository.save(report(EMAIL, week, 2025));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static Report report(String email, int week, int year) {
+        Report report = new Report(week, year, email);
+        Map<String, Float> scores = new HashMap<>();
+        scores.put("Finances", 6.5f);
+        scores.put("Friends", 7.0f);
+        scores.put("Growth", 8.0f);
+        report.setScores(scores);
+        List<ChatMessage> chat = new ArrayList<>();
+        chat.add(new ChatMessage("How was week " + week + "?", ChatMessage.Sender.AI));
+        chat.add(new ChatMessage("Pretty good.", ChatMessage.Sender.USER));
+        report.setChat(chat);
+        return report;
+    }
+
+    // The budget of an endpoint must not depend on how much history the user has
+    @ParameterizedTest(name = "{0} within {1} queries for {2} reports")
+    @CsvSource({
+            "/users/me/reports,                 3, 1",
+            "/users/me/reports,                 3, 30",
+            "/users/me/reports/page?limit=20,   3, 1",
+            "/users/me/reports/page?limit=20,   3, 30",
+            "/users/me/reports/2025/1,          4, 1",
+            "/users/me/reports/2025/1,          4, 30",
+            "/users/me/reports/2025/1/chat,     2, 30",
+            "/users/me/categories,              1, 30"
+    })
+    void readEndpoints_shouldStayWithinTheirQueryBudget(String path, int budget, int reportCount) throws Exception {
+        seed(reportCount);
+
+        QueryBudget.assertWithin(budget, "GET " + path,
+                () -> mockMvc.perform(get(path)).andExpect(status().isOk()));
+    }
+
+    @Test
+    void lazyChatPerReport_shouldExceedTheBudget() throws Exception {
+        seed(30);
+
+        AssertionFailedError error = assertThrows(AssertionFailedError.class,
+                () -> QueryBudget.assertWithin(3, "N+1 over chat", () -> {
+                    for (Report report : reportRepository.findByUserEmail(EMAIL)) {
+                        report.getChat().size();
+                    }
+                }));
+
+        assertTrue(error.getMessage().startsWith("N+1 over chat executed 31 SQL statements"), error.getMessage());
+        assertTrue(error.getMessage().toLowerCase().contains("chat_message"), error.getMessage());
+    }
+
+    // One query for the reports with their scores, one for the chat of all of them
+    @ParameterizedTest
+    @ValueSource(ints = {1, 30})
+    void reportsBody_shouldIncludeTheLazyCollectionsInTwoQueries(int reportCount) throws Exception {
+        seed(reportCount);
+
+        long statements = QueryBudget.count(() -> mockMvc.perform(get("/users/me/reports"))
+                .andExpect(status().isOk())
+                .andExpect(result -> {
+                    String body = result.getResponse().getContentAsString();
+                    assertTrue(body.contains("\"Growth\":8.0"), body);
+                    assertTrue(body.contains("Pretty good."), body);
+                }));
+
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void getPage_shouldWalkRangeAcrossYearsInThreeQueriesPerPage() throws Exception {
+        String email = "paged@example.com";
+        for (int week = 50; week <= 52; week++) {
+            reportRepository.save(report(email, week, 2024));
+        }
+        for (int week = 1; week <= 4; week++) {
+            reportRepository.save(report(email, week, 2025));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        IsoWeek from = IsoWeek.parse("2024-W51");
+        IsoWeek to = IsoWeek.parse("2025-W03");
+        List<String> seen = new ArrayList<>();
+        IsoWeek after = null;
+        do {
+            IsoWeek cursor = after;
+            List<CursorPage<Report>> pages = new ArrayList<>();
+            long statements = QueryBudget.count(() -> {
+                CursorPage<Report> page = reportService.getPage(email, cursor, from, to, 2);
+                for (Report report : page.items()) {
+                    assertEquals(3, report.getScores().size());
+                    assertEquals(2, report.getChat().size());
+                    seen.add(new IsoWeek(report.getYear(), report.getCalendarWeek()).toString());
+                }
+                pages.add(page);
+            });
+            assertEquals(3, statements);
+            String next = pages.get(0).nextCursor();
+            after = next == null ? null : IsoWeek.parse(next);
+        } while (after != null);
+
+        assertEquals(List.of("2024-W51", "2024-W52", "2025-W01", "2025-W02", "2025-W03"), seen);
+    }
+}
@@ -0,0 +1,157 @@
+package com.opsontherocks.wheel_of_life;
+
+//Runs every way of changing a report or category against an in-memory database and checks
+// that each one moves the version behind the ETag, and that a stale expected version is rejected.
+
+import com.opsontherocks.wheel_of_life.entity.Category;
+import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.CategoryRepository;
+import com.opsontherocks.wheel_of_life.repository.EntityVersion;
+import com.opsontherocks.wheel_of_life.service.CategoryService;
+import com.opsontherocks.wheel_of_life.service.ChatService;
+import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.TrendService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaServiceTest
+@Import({TrendService.class, ReportService.class, ChatService.class, CategoryService.class})
+public class EntityVersionTest {
+
+    private static final String EMAIL = "versions@example.com";
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private long reportVersion() {
+        return reportService.findVersion(EMAIL, 12, 2025).orElseThrow().version();
+    }
+
+    private void saveReport(String notes, Map<String, Float> scores) {
+        Report report = new Report(12, 2025, EMAIL);
+        report.setNotes(notes);
+        report.setScores(scores);
+        reportService.addOrUpdate(report);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void everyReportWrite_shouldBumpTheVersion() {
+        saveReport("Draft", new HashMap<>(Map.of("Growth", 5.0f)));
+        long created = reportVersion();
+
+        saveReport("Final", null);
+        long afterNotes = reportVersion();
+        assertTrue(afterNotes > created);
+
+        saveReport("Final", null);
+        assertEquals(afterNotes, reportVersion(), "an unchanged report keeps its ETag");
+
+        reportService.patchScores(EMAIL, 2025, 12, Map.of("Growth", 7.0f));
+        entityManager.clear();
+        long afterPatch = reportVersion();
+        assertTrue(afterPatch > afterNotes);
+
+        chatService.append(EMAIL, 2025, 12, ChatMessage.Sender.USER, "Busy week.");
+        entityManager.flush();
+        entityManager.clear();
+        assertTrue(reportVersion() > afterPatch);
+    }
+
+    @Test
+    void versions_shouldChangeWithAnyReport() {
+        saveReport("Draft", null);
+        List<EntityVersion> before = reportService.findVersions(EMAIL);
+
+        saveReport("Final", null);
+        List<EntityVersion> after = reportService.findVersions(EMAIL);
+
+        assertEquals(1, after.size());
+        assertNotEquals(before, after);
+        assertTrue(reportService.findVersions("nobody@example.com").isEmpty());
+    }
+
+    @Test
+    void addOrUpdate_shouldRejectStaleExpectedVersion() {
+        saveReport("Draft", null);
+        long stale = reportVersion();
+        saveReport("Final", null);
+
+        Report report = new Report(12, 2025, EMAIL);
+        report.setNotes("Lost update");
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> reportService.addOrUpdate(report, stale));
+    }
+
+    @Test
+    void rename_shouldBumpTheVersionAndRejectStaleExpectedVersion() {
+        Category category = categoryRepository.saveAndFlush(new Category("Growth", CategoryGroup.Career, EMAIL));
+        long id = category.getId();
+        long created = category.getVersion();
+        entityManager.clear();
+
+        Category renamed = categoryService.rename(id, EMAIL, "Learning", created).orElseThrow();
+        assertTrue(renamed.getVersion() > created);
+        entityManager.clear();
+
+        assertEquals(renamed.getVersion(), categoryService.findVersion(id, EMAIL).orElseThrow().version());
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> categoryService.rename(id, EMAIL, "Career", created));
+        assertTrue(categoryService.rename(id, "someone-else@example.com", "Career", null).isEmpty());
+    }
+
+    @Test
+    void delete_shouldRejectStaleExpectedVersion() {
+        saveReport("Draft", null);
+        long stale = reportVersion();
+        saveReport("Final", null);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> reportService.delete(EMAIL, 12, 2025, stale));
+        entityManager.clear();
+        assertEquals(1, reportService.delete(EMAIL, 12, 2025, reportVersion()).size());
+        assertTrue(reportService.findVersion(EMAIL, 12, 2025).isEmpty());
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> reportService.delete(EMAIL, 12, 2025, stale));
+    }
+
+    @Test
+    void deleteCategory_shouldRejectStaleExpectedVersion() {
+        Category category = categoryRepository.saveAndFlush(new Category("Growth", CategoryGroup.Career, EMAIL));
+        long id = category.getId();
+        long created = category.getVersion();
+        entityManager.clear();
+        categoryService.rename(id, EMAIL, "Learning", created);
+        entityManager.clear();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> categoryService.deleteById(id, created));
+        entityManager.clear();
+        categoryService.deleteById(id, categoryService.findVersion(id, EMAIL).orElseThrow().version());
+        assertTrue(categoryRepository.findById(id).isEmpty());
+    }
+}
@@ -0,0 +1,175 @@
+package com.opsontherocks.wheel_of_life;
+
+//Seeds the migrated schema with several users' categories, reports, scores, chat and trends,
+// then calls each repository finder, EXPLAINs the SQL it executed and fails on any whole-table scan.
+
+import com.opsontherocks.wheel_of_life.entity.Category;
+import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
+import com.opsontherocks.wheel_of_life.entity.CategoryTrend;
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.metrics.RequestDbMetricsConfig;
+import com.opsontherocks.wheel_of_life.metrics.RequestDbStats;
+import com.opsontherocks.wheel_of_life.repository.CategoryRepository;
+import com.opsontherocks.wheel_of_life.repository.CategoryTrendRepository;
+import com.opsontherocks.wheel_of_life.repository.ChatMessageRepository;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.service.DefaultCategories;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaServiceTest
+@Import(RequestDbMetricsConfig.class)
+public class FinderIndexUsageTest {
+
+    private static final int USERS = 20;
+    private static final int WEEKS = 30;
+    private static final String EMAIL = "user-7@example.com";
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private CategoryTrendRepository trendRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long reportId;
+    private long categoryId;
+
+    @BeforeEach
+    void seed() {
+        List<Category> categories = new ArrayList<>();
+        List<Report> reports = new ArrayList<>();
+        List<CategoryTrend> trends = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            String email = "user-" + u + "@example.com";
+            for (String name : List.of("Career", "Fitness", "Family", "Friends", "Hobbies")) {
+                categories.add(new Category(name, CategoryGroup.Other, email));
+                trends.add(new CategoryTrend(email, name));
+            }
+            for (int week = 1; week <= WEEKS; week++) {
+                Report report = new Report(week, 2024, email);
+                Map<String, Float> scores = new HashMap<>();
+                scores.put("Career", 5f);
+                scores.put("Fitness", 6f);
+                scores.put("Family", 7f);
+                report.setScores(scores);
+                report.addMessage(new ChatMessage("How was your week?", ChatMessage.Sender.AI));
+                report.addMessage(new ChatMessage("Fine.", ChatMessage.Sender.USER));
+                reports.add(report);
+            }
+        }
+        categoryId = categoryRepository.saveAll(categories).get(0).getId();
+        reportId = reportRepository.saveAll(reports).get(0).getId();
+        trendRepository.saveAll(trends);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void categoryFinders_shouldUseIndexes() {
+        assertIndexed("CategoryRepository.findByUserEmail", () -> categoryRepository.findByUserEmail(EMAIL));
+        assertIndexed("CategoryRepository.findByIdAndUserEmail",
+                () -> categoryRepository.findByIdAndUserEmail(categoryId, EMAIL));
+        assertIndexed("CategoryRepository.findVersion", () -> categoryRepository.findVersion(categoryId, EMAIL));
+        assertIndexed("CategoryRepository.insertDefaults",
+                () -> categoryRepository.insertDefaults(EMAIL, DefaultCategories.TEMPLATES));
+    }
+
+    @Test
+    void reportFinders_shouldUseIndexes() {
+        assertIndexed("ReportRepository.findByUserEmail", () -> reportRepository.findByUserEmail(EMAIL));
+        assertIndexed("ReportRepository.findPage",
+                () -> reportRepository.findPage(EMAIL, 2023, 52, 2024, 20, PageRequest.of(0, 21)));
+        assertIndexed("ReportRepository.streamByUserEmail", () -> {
+            try (Stream<Report> reports = reportRepository.streamByUserEmail(EMAIL)) {
+                reports.findFirst();
+            }
+        });
+        assertIndexed("ReportRepository.findWeeksByUserEmail", () -> reportRepository.findWeeksByUserEmail(EMAIL));
+        assertIndexed("ReportRepository.findIdByWeek", () -> reportRepository.findIdByWeek(EMAIL, 2024, 12));
+        assertIndexed("ReportRepository.findVersionByWeek",
+                () -> reportRepository.findVersionByWeek(EMAIL, 2024, 12));
+        assertIndexed("ReportRepository.findVersions", () -> reportRepository.findVersions(EMAIL));
+        assertIndexed("ReportRepository.findByCalendarWeekAndYearAndUserEmail",
+                () -> reportRepository.findByCalendarWeekAndYearAndUserEmail(12, 2024, EMAIL));
+
+        List<Report> reports = reportRepository.findAllById(List.of(reportId, reportId + 1));
+        assertIndexed("ReportRepository.fetchScores", () -> reportRepository.fetchScores(reports));
+        assertIndexed("ReportRepository.fetchChat", () -> reportRepository.fetchChat(reports));
+
+        assertIndexed("ReportRepository.findScorePoints",
+                () -> reportRepository.findScorePoints(EMAIL, List.of("Career", "Family")));
+        assertIndexed("ReportRepository.findScoredCategories", () -> reportRepository.findScoredCategories(EMAIL));
+        assertIndexed("ReportRepository.findScoredCategoriesByWeek",
+                () -> reportRepository.findScoredCategoriesByWeek(EMAIL, 2024, 12));
+    }
+
+    @Test
+    void chatAndTrendFinders_shouldUseIndexes() {
+        assertIndexed("ChatMessageRepository.findPage",
+                () -> chatMessageRepository.findPage(reportId, 0, PageRequest.of(0, 51)));
+        assertIndexed("CategoryTrendRepository.findByUserEmail", () -> trendRepository.findByUserEmail(EMAIL));
+        assertIndexed("CategoryTrendRepository.findByUserEmailAndCategoryNameIn",
+                () -> trendRepository.findByUserEmailAndCategoryNameIn(EMAIL, List.of("Career", "Family")));
+        assertIndexed("CategoryTrendRepository.deleteByUserEmailAndCategoryNameIn",
+                () -> trendRepository.deleteByUserEmailAndCategoryNameIn(EMAIL, List.of("Hobbies")));
+    }
+
+    // Records the statements the call really executes, as Hibernate generated them, and EXPLAINs each
+    private void assertIndexed(String finder, Runnable call) {
+        RequestDbStats stats = RequestDbStats.beginRecording();
+        try {
+            call.run();
+        } finally {
+            RequestDbStats.end();
+        }
+        assertFalse(stats.sql().isEmpty(), finder + " executed no SQL");
+        for (String sql : stats.sql()) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("tableScan"), finder + " scans a whole table:\n" + sql + "\n" + plan);
+        }
+    }
+
+    // H2 plans a statement when it is prepared, before any value is bound, so binding
+    // NULLs only satisfies EXPLAIN and leaves the plan the finder gets unchanged
+    private String explain(String sql) {
+        return jdbc.execute("EXPLAIN " + sql, (PreparedStatement statement) -> {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                assertTrue(plan.next());
+                return plan.getString(1);
+            }
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.opsontherocks.wheel_of_life;
+
+//Beans that @JpaServiceTest slices lack but the services need: an in-memory MeterRegistry
+// for their counters and timers, and a plain ObjectMapper for the export and the report snapshots.
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+@TestConfiguration
+public class JpaServiceTestConfig {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    ObjectMapper objectMapper() {
+        return new ObjectMapper();
+    }
+}
@@ -0,0 +1,42 @@
+package com.opsontherocks.wheel_of_life;
+
+//Test helper: runs a request against a context that imports RequestDbMetricsConfig and fails
+// when it executes more SQL statements than its budget, listing every statement it saw.
+
+import com.opsontherocks.wheel_of_life.metrics.RequestDbStats;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+public final class QueryBudget {
+
+    @FunctionalInterface
+    public interface Request {
+        void perform() throws Exception;
+    }
+
+    private QueryBudget() {
+    }
+
+    /** Runs {@code request} and returns how many statements it executed. */
+    public static long count(Request request) throws Exception {
+        return record(request).statements();
+    }
+
+    public static void assertWithin(int budget, String endpoint, Request request) throws Exception {
+        RequestDbStats stats = record(request);
+        if (stats.statements() > budget) {
+            fail(endpoint + " executed " + stats.statements() + " SQL statements, its budget is " + budget + ":\n  "
+                    + String.join("\n  ", stats.sql().stream().map(String::valueOf).toList()));
+        }
+    }
+
+    private static RequestDbStats record(Request request) throws Exception {
+        RequestDbStats stats = RequestDbStats.beginRecording();
+        try {
+            request.perform();
+        } finally {
+            RequestDbStats.end();
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,192 @@
+package com.opsontherocks.wheel_of_life;
+
+//Calls UserController through MockMvc with open-session-in-view and the replica routing in front of two
+// in-memory databases that do not replicate, checking that writes and their preconditions use the primary
+// and that a write following a read-only lookup in the same session is not pinned to the replica.
+
+import com.opsontherocks.wheel_of_life.controller.UserController;
+import com.opsontherocks.wheel_of_life.datasource.ReplicaLagMonitor;
+import com.opsontherocks.wheel_of_life.datasource.ReplicaRoutingConfig;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.service.CategoryService;
+import com.opsontherocks.wheel_of_life.service.ChatService;
+import com.opsontherocks.wheel_of_life.service.ReportExportService;
+import com.opsontherocks.wheel_of_life.service.ReportImportService;
+import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.ReportSnapshotCache;
+import com.opsontherocks.wheel_of_life.service.TrendService;
+import com.opsontherocks.wheel_of_life.service.UserNameService;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.handler.WebRequestHandlerInterceptorAdapter;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.temporal.WeekFields;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@JpaServiceTest
+@Import({ReplicaRoutingConfig.class, UserController.class, UserNameService.class, CategoryService.class,
+        ReportService.class, ReportSnapshotCache.class, ReportExportService.class, ReportImportService.class,
+        ChatService.class, TrendService.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_jpa_primary;DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR,VALUE",
+        "app.datasource.replica.url=jdbc:h2:mem:routing_jpa_replica;DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR,VALUE",
+        "app.datasource.replica.lag-query=SELECT 0"
+})
+// Each service call must run in its own transaction, as it does in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReplicaRoutingEndpointTest {
+
+    private static final String EMAIL = "routing@example.com";
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    @Autowired
+    private ReplicaLagMonitor monitor;
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private OpenEntityManagerInViewInterceptor openSessionInView;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        // Nothing replicates between the two databases, so a row shows which one it was written to
+        Flyway.configure()
+                .dataSource(replica)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        monitor.check();
+        assertTrue(monitor.isReplicaUsable());
+
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+
+        openSessionInView = new OpenEntityManagerInViewInterceptor();
+        openSessionInView.setEntityManagerFactory(entityManagerFactory);
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .addInterceptors(new WebRequestHandlerInterceptorAdapter(openSessionInView))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(EMAIL, null, List.of()));
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+        for (JdbcTemplate db : List.of(primaryJdbc, replicaJdbc)) {
+            db.update("DELETE FROM chat_message WHERE report_id IN (SELECT id FROM report WHERE user_email = ?)", EMAIL);
+            db.update("DELETE FROM report_scores WHERE report_id IN (SELECT id FROM report WHERE user_email = ?)", EMAIL);
+            db.update("DELETE FROM report WHERE user_email = ?", EMAIL);
+            db.update("DELETE FROM category WHERE user_email = ?", EMAIL);
+        }
+    }
+
+    private int reportCount(JdbcTemplate db) {
+        return db.queryForObject("SELECT count(*) FROM report WHERE user_email = ?", Integer.class, EMAIL);
+    }
+
+    private static int thisWeek() {
+        return LocalDate.now().get(WeekFields.ISO.weekOfWeekBasedYear());
+    }
+
+    private static int thisYear() {
+        return LocalDate.now().get(WeekFields.ISO.weekBasedYear());
+    }
+
+    @Test
+    void createThisWeekWritesToPrimary() throws Exception {
+        mockMvc.perform(post("/users/me/reports/this-week"))
+                .andExpect(status().isCreated());
+
+        assertEquals(1, reportCount(primaryJdbc));
+        assertEquals(0, reportCount(replicaJdbc));
+    }
+
+    @Test
+    void createThisWeekSeesReportsTheReplicaHasNotCaughtUpWith() throws Exception {
+        primaryJdbc.update("INSERT INTO report (id, calendar_week, year, user_email, notes, version) VALUES (9001, ?, ?, ?, 'kept', 0)",
+                thisWeek(), thisYear(), EMAIL);
+
+        mockMvc.perform(post("/users/me/reports/this-week"))
+                .andExpect(status().isConflict());
+
+        assertEquals("kept", primaryJdbc.queryForObject("SELECT notes FROM report WHERE id = 9001", String.class));
+    }
+
+    @Test
+    void ifMatchIsCheckedAgainstThePrimary() throws Exception {
+        primaryJdbc.update("INSERT INTO category (id, name, category_group, user_email, version) VALUES (9001, 'Career', 'Other', ?, 2)", EMAIL);
+
+        mockMvc.perform(put("/users/me/categories/9001")
+                        .header(HttpHeaders.IF_MATCH, "\"9001-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Work\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals("Work", primaryJdbc.queryForObject("SELECT name FROM category WHERE id = 9001", String.class));
+    }
+
+    @Test
+    void writeAfterReadOnlyLookupInTheSameSessionGoesToPrimary() {
+        // As open-session-in-view does for a request: one session across both transactions
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+        openSessionInView.preHandle(request);
+        try {
+            assertTrue(reportService.getByWeekAndYear(EMAIL, 12, 2025).isEmpty());
+
+            Report report = new Report(12, 2025, EMAIL);
+            report.setScores(new HashMap<>());
+            reportService.addOrUpdate(report);
+        } finally {
+            openSessionInView.afterCompletion(request, null);
+        }
+
+        assertEquals(1, reportCount(primaryJdbc));
+        assertEquals(0, reportCount(replicaJdbc));
+    }
+}
@@ -0,0 +1,99 @@
+package com.opsontherocks.wheel_of_life;
+
+//Routes transactions between two in-memory databases standing in for primary and replica,
+// checking that only read-only transactions reach the replica and that lag or failure falls back to the primary.
+
+import com.opsontherocks.wheel_of_life.datasource.ReplicaLagMonitor;
+import com.opsontherocks.wheel_of_life.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicaRoutingTest {
+
+    private static final String LAG_QUERY = "SELECT lag_seconds FROM replication_status";
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaLagMonitor monitor;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate reads;
+    private TransactionTemplate writes;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1", "sa", "");
+        DriverManagerDataSource replica = new DriverManagerDataSource("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1", "sa", "");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        for (JdbcTemplate db : new JdbcTemplate[]{primaryJdbc, replicaJdbc}) {
+            db.execute("DROP TABLE IF EXISTS marker");
+            db.execute("CREATE TABLE marker (name varchar(20))");
+        }
+        primaryJdbc.update("INSERT INTO marker VALUES ('primary')");
+        replicaJdbc.update("INSERT INTO marker VALUES ('replica')");
+        replicaJdbc.execute("DROP TABLE IF EXISTS replication_status");
+        replicaJdbc.execute("CREATE TABLE replication_status (lag_seconds double precision)");
+        replicaJdbc.update("INSERT INTO replication_status VALUES (0)");
+
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new ReplicaLagMonitor(replica, LAG_QUERY, Duration.ofSeconds(5), meterRegistry);
+        monitor.check();
+
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, monitor, meterRegistry));
+        jdbc = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+        writes = new TransactionTemplate(transactionManager);
+    }
+
+    private String marker() {
+        return jdbc.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    @Test
+    void readOnlyTransactions_shouldUseReplicaAndEverythingElsePrimary() {
+        assertEquals("replica", reads.execute(status -> marker()));
+        assertEquals("primary", writes.execute(status -> marker()));
+        assertEquals("primary", marker());
+        assertEquals(1, meterRegistry.get("wheel_of_life_datasource_routed_total").tag("pool", "replica").counter().count());
+    }
+
+    @Test
+    void laggingReplica_shouldFallBackToPrimaryUntilCaughtUp() {
+        replicaJdbc.update("UPDATE replication_status SET lag_seconds = 30");
+        monitor.check();
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals("primary", reads.execute(status -> marker()));
+        assertEquals(1, meterRegistry.get("wheel_of_life_replica_fallback_total").counter().count());
+        assertEquals(30, meterRegistry.get("wheel_of_life_replica_lag_seconds").gauge().value());
+
+        replicaJdbc.update("UPDATE replication_status SET lag_seconds = 0.5");
+        monitor.check();
+
+        assertEquals("replica", reads.execute(status -> marker()));
+    }
+
+    @Test
+    void failingReplicaCheck_shouldFallBackToPrimary() {
+        replicaJdbc.execute("DROP TABLE replication_status");
+        monitor.check();
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(0, meterRegistry.get("wheel_of_life_replica_usable").gauge().value());
+        assertEquals("primary", reads.execute(status -> marker()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.opsontherocks.wheel_of_life;
+
+//Exports a long report history from an in-memory database and checks that every
+// report is written as one NDJSON line and that none stays in the persistence context.
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.service.ReportExportService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaServiceTest
+@Import(ReportExportService.class)
+public class ReportExportTest {
+
+    @Autowired
+    private ReportExportService reportExportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void export_shouldWriteOneLinePerReportInWeekOrder() throws Exception {
+        String email = "export@example.com";
+        // More than two chunks, saved out of order
+        for (int i = 120; i >= 1; i--) {
+            int year = 2023 + (i - 1) / 52;
+            int week = (i - 1) % 52 + 1;
+            Report report = new Report(week, year, email);
+            report.setScores(Map.of("Growth", (float) (i % 10)));
+            report.setChat(List.of(new ChatMessage("Week " + week, ChatMessage.Sender.USER)));
+            reportRepository.save(report);
+        }
+        reportRepository.save(new Report(1, 2023, "someone-else@example.com"));
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = reportExportService.export(email, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(120, written);
+        assertEquals(120, lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(2023, first.get("year").asInt());
+        assertEquals(1, first.get("calendarWeek").asInt());
+        assertEquals(1, first.get("scores").size());
+        assertEquals("Week 1", first.get("chat").get(0).get("message").asText());
+
+        JsonNode last = objectMapper.readTree(lines[119]);
+        assertEquals(2025, last.get("year").asInt());
+        assertEquals(16, last.get("calendarWeek").asInt());
+
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
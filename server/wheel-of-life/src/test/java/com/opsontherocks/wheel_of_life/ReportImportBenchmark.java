@@ -0,0 +1,92 @@
+package com.opsontherocks.wheel_of_life;
+
+//Compares rows per second of the one-report-per-request path (no JDBC batching)
+// with the bulk import. Run with ./gradlew benchmark; pass -Dspring.datasource.url=...
+// (plus username, password and dialect) to measure against a scratch PostgreSQL database.
+
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.service.ReportImportService;
+import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.TrendService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("benchmark")
+@JpaServiceTest
+@Import({TrendService.class, ReportService.class, ReportImportService.class})
+public class ReportImportBenchmark {
+
+    private static final int REPORTS = 520;
+    // Every report has 3 scores and 2 chat messages
+    private static final int ROWS_PER_REPORT = 6;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportImportService reportImportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void compareRowsPerSecond() {
+        // Warm up both paths so the JIT and connection pool do not skew the first run
+        singleInserts("warmup-single@example.com", 52);
+        reportImportService.importReports("warmup-bulk@example.com", reports(52));
+
+        long singleNanos = singleInserts("single@example.com", REPORTS);
+
+        long start = System.nanoTime();
+        reportImportService.importReports("bulk@example.com", reports(REPORTS));
+        long bulkNanos = System.nanoTime() - start;
+
+        double singleRate = rowsPerSecond(singleNanos);
+        double bulkRate = rowsPerSecond(bulkNanos);
+        System.out.printf("%d reports (%d rows)%n", REPORTS, REPORTS * ROWS_PER_REPORT);
+        System.out.printf("  one per request, unbatched: %10.0f rows/s%n", singleRate);
+        System.out.printf("  bulk import, batched:       %10.0f rows/s (%.1fx)%n", bulkRate, bulkRate / singleRate);
+
+        assertTrue(bulkRate > 0 && singleRate > 0);
+    }
+
+    // What saving the weeks one by one through POST /users/me/reports costs:
+    // an upsert, a load and unbatched score/chat inserts flushed per report
+    private long singleInserts(String email, int count) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(1);
+        try {
+            long start = System.nanoTime();
+            for (Report report : reports(count)) {
+                report.setUserEmail(email);
+                reportService.addOrUpdate(report);
+                entityManager.flush();
+                entityManager.clear();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            session.setJdbcBatchSize(null);
+        }
+    }
+
+    private static List<Report> reports(int count) {
+        List<Report> reports = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reports.add(ReportImportTest.report(i % 52 + 1, 2000 + i / 52));
+        }
+        return reports;
+    }
+
+    private static double rowsPerSecond(long nanos) {
+        return REPORTS * ROWS_PER_REPORT / (nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,103 @@
+package com.opsontherocks.wheel_of_life;
+
+//Imports a large batch of reports into an in-memory database and checks that
+// existing and duplicate weeks are skipped and that the rows are written in JDBC batches.
+
+import com.opsontherocks.wheel_of_life.dto.ImportResult;
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.service.ReportImportService;
+import com.opsontherocks.wheel_of_life.service.TrendService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaServiceTest
+@Import({TrendService.class, ReportImportService.class})
+public class ReportImportTest {
+
+    @Autowired
+    private ReportImportService reportImportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void importReports_shouldSkipExistingAndDuplicateWeeks() {
+        String email = "import@example.com";
+        reportRepository.save(new Report(2, 2024, email));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Report> payload = new ArrayList<>();
+        payload.add(report(1, 2024));
+        payload.add(report(2, 2024)); // already exists
+        payload.add(report(3, 2024));
+        payload.add(report(3, 2024)); // duplicate in payload
+
+        ImportResult result = reportImportService.importReports(email, payload);
+
+        assertEquals(2, result.imported());
+        assertEquals(2, result.skipped());
+        assertEquals(3, reportRepository.findByUserEmail(email).size());
+        assertEquals(2.0, meterRegistry.counter("wheel_of_life_reports_total").count());
+    }
+
+    @Test
+    void importReports_shouldWriteRowsInBatches() {
+        String email = "batched@example.com";
+        List<Report> payload = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            payload.add(report(i % 52 + 1, 2020 + i / 52));
+        }
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        ImportResult result = reportImportService.importReports(email, payload);
+
+        // 200 reports, 600 scores and 400 chat messages
+        assertEquals(200, result.imported());
+        assertTrue(statistics.getPrepareStatementCount() < 100,
+                "Expected batched statements, got " + statistics.getPrepareStatementCount());
+
+        Report sample = reportRepository.findByCalendarWeekAndYearAndUserEmail(10, 2021, email).orElseThrow();
+        assertEquals(3, sample.getScores().size());
+        assertEquals(2, sample.getChat().size());
+    }
+
+    static Report report(int week, int year) {
+        Report report = new Report(week, year, "ignored@example.com");
+        report.setNotes("Imported week " + week);
+        Map<String, Float> scores = new HashMap<>();
+        scores.put("Finances", 6.5f);
+        scores.put("Friends", 7.0f);
+        scores.put("Growth", 8.0f);
+        report.setScores(scores);
+        List<ChatMessage> chat = new ArrayList<>();
+        chat.add(new ChatMessage("How was week " + week + "?", ChatMessage.Sender.AI));
+        chat.add(new ChatMessage("Pretty good.", ChatMessage.Sender.USER));
+        report.setChat(chat);
+        return report;
+    }
+}
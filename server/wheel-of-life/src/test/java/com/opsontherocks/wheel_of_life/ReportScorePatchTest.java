@@ -0,0 +1,70 @@
+package com.opsontherocks.wheel_of_life;
+
+//Patches single scores of a report in an in-memory database and checks that only the
+// named categories change and that the report is never loaded for it.
+
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.TrendService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaServiceTest
+@Import({TrendService.class, ReportService.class})
+public class ReportScorePatchTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void patchScores_shouldOnlyTouchNamedCategories() {
+        String email = "patch@example.com";
+        Report report = new Report(30, 2025, email);
+        report.setScores(new HashMap<>(Map.of("Finances", 5.0f, "Friends", 6.0f, "Growth", 7.0f)));
+        reportRepository.save(report);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        Map<String, Float> changes = new HashMap<>();
+        changes.put("Finances", 8.5f);   // update
+        changes.put("Friends", null);    // delete
+        changes.put("Purpose", 4.0f);    // insert
+        assertTrue(reportService.patchScores(email, 2025, 30, changes));
+
+        // Only the id lookup goes through Hibernate; the DELETE and the upsert are plain
+        // JDBC, and neither the report nor its score collection is ever loaded
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+
+        entityManager.clear();
+        Report stored = reportRepository.findByCalendarWeekAndYearAndUserEmail(30, 2025, email).orElseThrow();
+        assertEquals(Map.of("Finances", 8.5f, "Growth", 7.0f, "Purpose", 4.0f), stored.getScores());
+    }
+
+    @Test
+    void patchScores_shouldReturnFalseWithoutReport() {
+        assertFalse(reportService.patchScores("nobody@example.com", 2025, 1, Map.of("Growth", 1.0f)));
+    }
+}
@@ -3,15 +3,23 @@ package com.opsontherocks.wheel_of_life;
 //Unit tests the core business logic in the ReportService, including retrieval,
 // creation, update, and deletion of weekly reports.
 
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
 import com.opsontherocks.wheel_of_life.entity.Report;
 import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.repository.ReportUpsertResult;
 import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.TrendService;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,17 +28,16 @@ public class ReportServiceTest {
 
     private ReportService reportService;
     private ReportRepository reportRepository;
+    private TrendService trendService;
     private MeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
         reportRepository = mock(ReportRepository.class);
-        meterRegistry = mock(MeterRegistry.class);
+        meterRegistry = new SimpleMeterRegistry();
 
-        // Optional: mock the counter if needed for verification
-        when(meterRegistry.counter(anyString())).thenReturn(mock(io.micrometer.core.instrument.Counter.class));
-
-        reportService = new ReportService(reportRepository, meterRegistry);
+        trendService = mock(TrendService.class);
+        reportService = new ReportService(reportRepository, trendService, meterRegistry);
     }
 
     @Test
@@ -47,6 +54,7 @@ public class ReportServiceTest {
 
         assertEquals(2, result.size());
         verify(reportRepository).findByUserEmail(email);
+        verify(reportRepository).fetchChat(mockReports);
     }
 
     @Test
@@ -68,16 +76,22 @@ public class ReportServiceTest {
     void testAddOrUpdate_NewReport() {
         String email = "test@example.com";
         Report report = new Report(27, 2025, email);
+        report.setNotes("Good week");
+        report.setScores(Map.of("Growth", 8.0f));
 
-        when(reportRepository.findByCalendarWeekAndYearAndUserEmail(27, 2025, email))
-                .thenReturn(Optional.empty());
-
-        when(reportRepository.save(report)).thenReturn(report);
+        Report stored = new Report(27, 2025, email);
+        stored.setId(7L);
+        stored.setScores(new HashMap<>());
+        when(reportRepository.upsert(report)).thenReturn(new ReportUpsertResult(7L, true));
+        when(reportRepository.findById(7L)).thenReturn(Optional.of(stored));
 
         Report saved = reportService.addOrUpdate(report);
 
-        assertNotNull(saved);
-        verify(reportRepository).save(report);
+        assertSame(stored, saved);
+        assertEquals("Good week", saved.getNotes());
+        assertEquals(Map.of("Growth", 8.0f), saved.getScores());
+        assertEquals(1.0, meterRegistry.counter("wheel_of_life_reports_total").count());
+        verify(reportRepository, never()).save(any(Report.class));
     }
 
     @Test
@@ -85,21 +99,67 @@ public class ReportServiceTest {
         String email = "test@example.com";
         Report existing = new Report(27, 2025, email);
         existing.setId(42L);
+        existing.setScores(new HashMap<>(Map.of("Growth", 5.0f, "Family", 6.0f)));
+        ChatMessage kept = message(1L, "Hi", ChatMessage.Sender.AI);
+        ChatMessage dropped = message(2L, "Old", ChatMessage.Sender.USER);
+        existing.setChat(new ArrayList<>(List.of(kept, dropped)));
+
         Report input = new Report(27, 2025, email);
+        input.setScores(Map.of("Growth", 7.0f));
+        input.setChat(List.of(
+                message(1L, "Hi", ChatMessage.Sender.AI),
+                new ChatMessage("New", ChatMessage.Sender.USER)));
 
-        when(reportRepository.findByCalendarWeekAndYearAndUserEmail(27, 2025, email))
-                .thenReturn(Optional.of(existing));
-        when(reportRepository.save(any(Report.class))).thenReturn(existing);
+        when(reportRepository.upsert(input)).thenReturn(new ReportUpsertResult(42L, false));
+        when(reportRepository.findById(42L)).thenReturn(Optional.of(existing));
 
         Report updated = reportService.addOrUpdate(input);
 
         assertEquals(42L, updated.getId());
-        verify(reportRepository).save(any(Report.class));
+        assertEquals(Map.of("Growth", 7.0f), updated.getScores());
+        assertEquals(2, updated.getChat().size());
+        assertSame(kept, updated.getChat().get(0));
+        assertEquals("New", updated.getChat().get(1).getMessage());
+        assertSame(existing, updated.getChat().get(1).getReport());
+        assertEquals(0.0, meterRegistry.counter("wheel_of_life_reports_total").count());
+        verify(trendService).recompute(email, Set.of("Growth", "Family"));
+    }
+
+    @Test
+    void testAddOrUpdate_RecomputesOnlyChangedCategories() {
+        String email = "test@example.com";
+        Report existing = new Report(27, 2025, email);
+        existing.setId(42L);
+        existing.setScores(new HashMap<>(Map.of("Growth", 5.0f, "Family", 6.0f, "Health", 4.0f)));
+        when(reportRepository.upsert(any(Report.class))).thenReturn(new ReportUpsertResult(42L, false));
+        when(reportRepository.findById(42L)).thenReturn(Optional.of(existing));
+
+        Report input = new Report(27, 2025, email);
+        input.setScores(Map.of("Growth", 5.0f, "Family", 7.0f, "Career", 3.0f));
+        reportService.addOrUpdate(input);
+
+        verify(trendService).recompute(email, Set.of("Family", "Career", "Health"));
+
+        Report unchanged = new Report(27, 2025, email);
+        unchanged.setScores(Map.of("Growth", 5.0f, "Family", 7.0f, "Career", 3.0f));
+        reportService.addOrUpdate(unchanged);
+
+        verifyNoMoreInteractions(trendService);
     }
 
     @Test
     void testDelete() {
+        when(reportRepository.findScoredCategoriesByWeek("test@example.com", 2025, 27)).thenReturn(List.of("Growth"));
+
         reportService.delete("test@example.com", 27, 2025);
+
         verify(reportRepository).deleteByCalendarWeekAndYearAndUserEmail(27, 2025, "test@example.com");
+        verify(trendService).recompute("test@example.com", List.of("Growth"));
+    }
+
+    private static ChatMessage message(Long id, String text, ChatMessage.Sender sender) {
+        ChatMessage message = new ChatMessage(text, sender);
+        message.setId(id);
+        return message;
     }
 }
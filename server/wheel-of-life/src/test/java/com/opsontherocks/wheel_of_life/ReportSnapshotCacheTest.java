@@ -0,0 +1,107 @@
+package com.opsontherocks.wheel_of_life;
+
+//Unit tests the serialized-report cache: finished reports are serialized once per version,
+// the current week is never cached, and the pre-gzipped bytes match the plain JSON.
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opsontherocks.wheel_of_life.dto.IsoWeek;
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.EntityVersion;
+import com.opsontherocks.wheel_of_life.service.ReportSnapshotCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportSnapshotCacheTest {
+
+    private ReportSnapshotCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ReportSnapshotCache(new ObjectMapper(), new SimpleMeterRegistry(), 1 << 20, true);
+        loads = new AtomicInteger();
+    }
+
+    private Supplier<Optional<Report>> loader(Report report) {
+        return () -> {
+            loads.incrementAndGet();
+            return Optional.of(report);
+        };
+    }
+
+    private static Report report(int year, int week, long version) {
+        Report report = new Report(week, year, "snapshot@example.com");
+        report.setId(7L);
+        report.setVersion(version);
+        report.setNotes("Calm week");
+        report.setScores(Map.of("Growth", 6.5f));
+        report.addMessage(new ChatMessage("How was your week?", ChatMessage.Sender.AI));
+        return report;
+    }
+
+    @Test
+    void finishedReport_shouldBeSerializedOncePerVersion() {
+        Report report = report(2025, 10, 3);
+
+        byte[] first = cache.get(new EntityVersion(7, 3), loader(report)).orElseThrow().json();
+        byte[] second = cache.get(new EntityVersion(7, 3), loader(report)).orElseThrow().json();
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertTrue(new String(first).contains("\"notes\":\"Calm week\""));
+
+        report.setVersion(4L);
+        assertEquals(4, cache.get(new EntityVersion(7, 4), loader(report)).orElseThrow().version());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void currentWeek_shouldNotBeCached() {
+        IsoWeek now = IsoWeek.of(LocalDate.now());
+        Report report = report(now.year(), now.week(), 0);
+
+        cache.get(new EntityVersion(7, 0), loader(report));
+        cache.get(new EntityVersion(7, 0), loader(report));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evict_shouldDropTheSnapshot() {
+        Report report = report(2025, 10, 3);
+        cache.get(new EntityVersion(7, 3), loader(report));
+
+        cache.evict(7L);
+        cache.get(new EntityVersion(7, 3), loader(report));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void missingReport_shouldBeEmpty() {
+        assertTrue(cache.get(new EntityVersion(7, 3), Optional::empty).isEmpty());
+    }
+
+    @Test
+    void gzip_shouldDecompressToTheJson() throws IOException {
+        ReportSnapshotCache.Snapshot snapshot = cache.get(new EntityVersion(7, 3), loader(report(2025, 10, 3)))
+                .orElseThrow();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzip()))) {
+            assertArrayEquals(snapshot.json(), in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.opsontherocks.wheel_of_life;
+
+//Runs ReportService.addOrUpdate against an in-memory database and checks that saving
+// the same week twice updates one row, counts one creation and returns what is stored.
+
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.TrendService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaServiceTest
+@Import({TrendService.class, ReportService.class})
+public class ReportUpsertTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void addOrUpdate_shouldInsertOnceAndThenUpdateInPlace() {
+        String email = "upsert@example.com";
+
+        Report first = new Report(10, 2025, email);
+        first.setNotes("Draft");
+        first.setScores(Map.of("Growth", 5.0f, "Family", 6.0f));
+        first.setChat(List.of(new ChatMessage("How was your week?", ChatMessage.Sender.AI)));
+        Report created = reportService.addOrUpdate(first);
+        entityManager.flush();
+        entityManager.clear();
+
+        Long openerId = reportRepository.findById(created.getId()).orElseThrow().getChat().get(0).getId();
+        entityManager.clear();
+
+        Report second = new Report(10, 2025, email);
+        second.setNotes("Final");
+        second.setScores(Map.of("Growth", 8.0f));
+        List<ChatMessage> chat = new ArrayList<>();
+        ChatMessage opener = new ChatMessage("How was your week?", ChatMessage.Sender.AI);
+        opener.setId(openerId);
+        chat.add(opener);
+        chat.add(new ChatMessage("Busy but good.", ChatMessage.Sender.USER));
+        second.setChat(chat);
+        Report updated = reportService.addOrUpdate(second);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(created.getId(), updated.getId());
+        assertEquals(1.0, meterRegistry.counter("wheel_of_life_reports_total").count());
+
+        Report stored = reportRepository.findByCalendarWeekAndYearAndUserEmail(10, 2025, email).orElseThrow();
+        assertEquals(1, reportRepository.findByUserEmail(email).size());
+        assertEquals("Final", stored.getNotes());
+        assertEquals(Map.of("Growth", 8.0f), stored.getScores());
+        assertEquals(2, stored.getChat().size());
+        assertEquals(openerId, stored.getChat().get(0).getId());
+    }
+
+    @Test
+    void addOrUpdate_shouldLeaveChatUntouchedWhenNoneIsSent() {
+        String email = "notes-only@example.com";
+
+        Report first = new Report(11, 2025, email);
+        first.setChat(List.of(new ChatMessage("Let's reflect on your week.", ChatMessage.Sender.AI)));
+        reportService.addOrUpdate(first);
+        entityManager.flush();
+        entityManager.clear();
+
+        Report notesOnly = new Report(11, 2025, email);
+        notesOnly.setNotes("Only notes");
+        reportService.addOrUpdate(notesOnly);
+        entityManager.flush();
+        entityManager.clear();
+
+        Report stored = reportRepository.findByCalendarWeekAndYearAndUserEmail(11, 2025, email).orElseThrow();
+        assertEquals("Only notes", stored.getNotes());
+        assertEquals(1, stored.getChat().size());
+    }
+}
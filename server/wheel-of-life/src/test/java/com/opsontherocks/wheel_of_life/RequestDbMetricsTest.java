@@ -0,0 +1,114 @@
+package com.opsontherocks.wheel_of_life;
+
+//Runs requests through the DB metrics filter against an in-memory database and checks that
+// statements, entity loads and collection loads are counted per request and tagged by endpoint.
+
+import com.opsontherocks.wheel_of_life.entity.ChatMessage;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.metrics.RequestDbMetricsConfig;
+import com.opsontherocks.wheel_of_life.metrics.RequestDbMetricsFilter;
+import com.opsontherocks.wheel_of_life.metrics.RequestDbStats;
+import com.opsontherocks.wheel_of_life.metrics.StatementMetricsDataSource;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.TrendService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaServiceTest
+@Import({TrendService.class, ReportService.class, RequestDbMetricsConfig.class})
+public class RequestDbMetricsTest {
+
+    private static final String EMAIL = "metrics@example.com";
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestDbMetricsFilter filter;
+
+    @BeforeEach
+    void setup() {
+        for (int week = 1; week <= 3; week++) {
+            Report report = new Report(week, 2025, EMAIL);
+            report.setScores(new HashMap<>(Map.of("Health", 5.0f, "Career", 6.0f)));
+            report.setChat(new ArrayList<>(List.of(new ChatMessage("How was week " + week + "?", ChatMessage.Sender.AI),
+                    new ChatMessage("Fine.", ChatMessage.Sender.USER))));
+            reportRepository.save(report);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestDbMetricsFilter(meterRegistry);
+    }
+
+    // Stands in for the dispatcher: matches the handler, then serializes what it returned
+    private FilterChain handler(String pattern) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            for (Report report : reportService.getByUserEmail(EMAIL)) {
+                report.getScores().size();
+                report.getChat().size();
+            }
+        };
+    }
+
+    private DistributionSummary summary(String name) {
+        return meterRegistry.get(name).tags("method", "GET", "uri", "/users/me/reports").summary();
+    }
+
+    @Test
+    void jpaDataSource_shouldBeWrapped() {
+        assertInstanceOf(StatementMetricsDataSource.class, dataSource);
+    }
+
+    @Test
+    void request_shouldRecordItsDatabaseWorkTaggedByUriTemplate() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/me/reports"), new MockHttpServletResponse(),
+                handler("/users/me/reports"));
+
+        assertEquals(1, summary("wheel_of_life_request_jdbc_statements").count());
+        assertEquals(2, summary("wheel_of_life_request_jdbc_statements").totalAmount());
+        // Three reports with two chat messages each, and a scores and a chat collection per report
+        assertEquals(9, summary("wheel_of_life_request_entities_loaded").totalAmount());
+        assertEquals(6, summary("wheel_of_life_request_collections_initialized").totalAmount());
+        assertEquals(1, meterRegistry.get("wheel_of_life_request_db")
+                .tags("method", "GET", "uri", "/users/me/reports").timer().count());
+        assertNull(RequestDbStats.current());
+    }
+
+    @Test
+    void requestsWithoutHandlerAndWorkOutsideRequests_shouldNotBeRecorded() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/missing"), new MockHttpServletResponse(),
+                (request, response) -> reportService.getByUserEmail(EMAIL));
+        reportService.getByUserEmail(EMAIL);
+
+        assertNull(meterRegistry.find("wheel_of_life_request_jdbc_statements").meter());
+    }
+}
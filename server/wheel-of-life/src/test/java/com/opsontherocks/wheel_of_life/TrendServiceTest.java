@@ -0,0 +1,175 @@
+package com.opsontherocks.wheel_of_life;
+
+//Writes reports through ReportService against an in-memory database and checks that the
+// per-category and per-group trend summary follows every add, update, patch and delete, and
+// that recomputing a trend another writer has just inserted updates it instead of colliding.
+
+import com.opsontherocks.wheel_of_life.dto.TrendSummary;
+import com.opsontherocks.wheel_of_life.dto.TrendsResponse;
+import com.opsontherocks.wheel_of_life.entity.Category;
+import com.opsontherocks.wheel_of_life.entity.CategoryGroup;
+import com.opsontherocks.wheel_of_life.entity.CategoryTrend;
+import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.CategoryRepository;
+import com.opsontherocks.wheel_of_life.repository.CategoryTrendRepository;
+import com.opsontherocks.wheel_of_life.repository.ReportRepository;
+import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.TrendService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JpaServiceTest
+@Import({TrendService.class, ReportService.class})
+public class TrendServiceTest {
+
+    private static final double EPSILON = 1e-6;
+
+    @Autowired
+    private TrendService trendService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryTrendRepository trendRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void writes_shouldKeepTrendsUpToDate() {
+        String email = "trends@example.com";
+        categoryRepository.save(new Category("Growth", CategoryGroup.Career, email));
+        categoryRepository.save(new Category("Finances", CategoryGroup.Career, email));
+
+        // Growth rises by one point per week: 4, 5, 6, 7, 8
+        for (int week = 1; week <= 5; week++) {
+            save(email, week, Map.of("Growth", 3.0f + week, "Finances", 5.0f));
+        }
+        TrendSummary growth = category(trendService.getTrends(email), "Growth");
+        assertEquals(5, growth.reportCount());
+        assertEquals("2025-W05", growth.latestWeek());
+        assertEquals(8.0, growth.latestScore(), EPSILON);
+        assertEquals(6.5, growth.movingAverage(), EPSILON);
+        assertEquals(4.0, growth.min(), EPSILON);
+        assertEquals(8.0, growth.max(), EPSILON);
+        assertEquals(1.0, growth.slope(), EPSILON);
+        assertEquals(1.0, growth.weekOverWeekDelta(), EPSILON);
+
+        // Overwrite the latest week, patch a single score, then delete a week
+        save(email, 5, Map.of("Growth", 2.0f, "Finances", 5.0f));
+        reportService.patchScores(email, 2025, 4, Map.of("Growth", 3.0f));
+        reportService.delete(email, 1, 2025);
+        entityManager.flush();
+        entityManager.clear();
+
+        TrendsResponse trends = trendService.getTrends(email);
+        growth = category(trends, "Growth");
+        assertEquals(4, growth.reportCount());
+        assertEquals(2.0, growth.latestScore(), EPSILON);
+        assertEquals(2.0, growth.min(), EPSILON);
+        assertEquals(6.0, growth.max(), EPSILON);
+        assertEquals(-1.0, growth.weekOverWeekDelta(), EPSILON);
+
+        TrendSummary career = trends.groups().stream()
+                .filter(g -> g.name().equals("Career"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals((growth.movingAverage() + 5.0) / 2, career.movingAverage(), EPSILON);
+        assertEquals(2.0, career.min(), EPSILON);
+    }
+
+    @Test
+    void getTrends_shouldBackfillReportsWrittenBeforeTheSummaryExisted() {
+        String email = "legacy@example.com";
+        for (int week = 1; week <= 3; week++) {
+            Report report = new Report(week, 2024, email);
+            report.setScores(new HashMap<>(Map.of("Family", (float) week)));
+            reportRepository.save(report);
+        }
+        entityManager.flush();
+        assertTrue(trendRepository.findByUserEmail(email).isEmpty());
+
+        TrendSummary family = category(trendService.getTrends(email), "Family");
+
+        assertEquals(3, family.reportCount());
+        assertEquals(1, trendRepository.findByUserEmail(email).size());
+        // Without a matching category the scores are grouped under "Other"
+        assertEquals("Other", trendService.getTrends(email).groups().get(0).name());
+    }
+
+    @Test
+    void recompute_shouldUpdateTheTrendAnotherWriterJustInserted() {
+        String email = "race@example.com";
+        Report report = new Report(1, 2025, email);
+        report.setScores(new HashMap<>(Map.of("Health", 4.0f)));
+        reportRepository.save(report);
+        entityManager.flush();
+
+        // The second writer finds the row the first one inserted instead of inserting again
+        trendService.recompute(email, List.of("Health"));
+        reportRepository.findByCalendarWeekAndYearAndUserEmail(1, 2025, email).orElseThrow()
+                .getScores().put("Health", 9.0f);
+        trendService.recompute(email, List.of("Health"));
+        entityManager.clear();
+
+        List<CategoryTrend> trends = trendRepository.findByUserEmail(email);
+        assertEquals(1, trends.size());
+        assertEquals(9.0f, trends.get(0).getLatestScore(), EPSILON);
+
+        reportService.delete(email, 1, 2025);
+        entityManager.clear();
+        assertTrue(trendRepository.findByUserEmail(email).isEmpty());
+    }
+
+    @Test
+    void writes_shouldLeaveUnratedCategoriesOutOfTheTrend() {
+        String email = "unrated@example.com";
+        Map<String, Float> scores = new HashMap<>();
+        scores.put("Growth", null);
+        scores.put("Family", 6.0f);
+        save(email, 1, scores);
+        save(email, 2, Map.of("Growth", 4.0f, "Family", 7.0f));
+
+        TrendsResponse trends = trendService.getTrends(email);
+        TrendSummary growth = category(trends, "Growth");
+        assertEquals(1, growth.reportCount());
+        assertEquals(4.0, growth.min(), EPSILON);
+        assertNull(growth.weekOverWeekDelta());
+        assertEquals(2, category(trends, "Family").reportCount());
+
+        // A category whose only score is unrated has no trend at all
+        save(email, 2, scores);
+        assertTrue(trendService.getTrends(email).categories().stream().noneMatch(c -> c.name().equals("Growth")));
+    }
+
+    private void save(String email, int week, Map<String, Float> scores) {
+        Report report = new Report(week, 2025, email);
+        report.setScores(new HashMap<>(scores));
+        reportService.addOrUpdate(report);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static TrendSummary category(TrendsResponse trends, String name) {
+        List<TrendSummary> categories = trends.categories();
+        return categories.stream()
+                .filter(c -> c.name().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
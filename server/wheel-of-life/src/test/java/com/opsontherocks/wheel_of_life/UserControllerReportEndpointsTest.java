@@ -2,18 +2,28 @@ package com.opsontherocks.wheel_of_life;
 //Unit tests the report-related endpoints of UserController in isolation,
 // verifying controller responses and delegation to the ReportService without loading the Spring context.
 import com.opsontherocks.wheel_of_life.controller.UserController;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.opsontherocks.wheel_of_life.entity.Report;
+import com.opsontherocks.wheel_of_life.repository.EntityVersion;
 import com.opsontherocks.wheel_of_life.service.CategoryService;
 import com.opsontherocks.wheel_of_life.service.ReportService;
+import com.opsontherocks.wheel_of_life.service.ReportSnapshotCache;
+import com.opsontherocks.wheel_of_life.service.UserNameService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,7 +41,11 @@ public class UserControllerReportEndpointsTest {
     private CategoryService categoryService;
 
     @Mock
-    private JdbcTemplate jdbc;
+    private UserNameService userNameService;
+
+    @Spy
+    private ReportSnapshotCache reportSnapshots =
+            new ReportSnapshotCache(new ObjectMapper(), new SimpleMeterRegistry(), 1 << 20, true);
 
     @InjectMocks
     private UserController userController;
@@ -41,13 +55,36 @@ public class UserControllerReportEndpointsTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    private static WebRequest request(String method) {
+        return new ServletWebRequest(new MockHttpServletRequest(method, "/users/me"), new MockHttpServletResponse());
+    }
+
+    @Test
+    void currentUserName_shouldUseTokenClaimWithoutLookup() {
+        ResponseEntity<String> response = userController.currentUserName("test@example.com", "Test User");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Test User", response.getBody());
+        verifyNoInteractions(userNameService);
+    }
+
+    @Test
+    void currentUserName_shouldFallBackToLookupForTokensWithoutClaim() {
+        when(userNameService.findName("test@example.com")).thenReturn(Optional.of("Test User"));
+
+        ResponseEntity<String> response = userController.currentUserName("test@example.com", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Test User", response.getBody());
+    }
+
     @Test
     void getAllReports_shouldReturnReportsForUser() {
         String email = "test@example.com";
         List<Report> mockReports = List.of(new Report(27, 2025, email));
         when(reportService.getByUserEmail(email)).thenReturn(mockReports);
 
-        ResponseEntity<List<Report>> response = userController.getAllReports(email);
+        ResponseEntity<List<Report>> response = userController.getAllReports(email, request("GET"));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
@@ -58,12 +95,16 @@ public class UserControllerReportEndpointsTest {
     void getReport_shouldReturnReportIfExists() {
         String email = "test@example.com";
         Report report = new Report(27, 2025, email);
+        report.setId(7L);
+        report.setVersion(0L);
+        when(reportService.findVersion(email, 27, 2025)).thenReturn(Optional.of(new EntityVersion(7, 0)));
         when(reportService.getByWeekAndYear(email, 27, 2025)).thenReturn(Optional.of(report));
 
-        ResponseEntity<?> response = userController.getReport(2025, 27, email);
+        ResponseEntity<?> response = userController.getReport(2025, 27, null, email, request("GET"));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(report, response.getBody());
+        String json = new String((byte[]) response.getBody(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"calendarWeek\":27"));
     }
 
     @Test
@@ -71,7 +112,7 @@ public class UserControllerReportEndpointsTest {
         String email = "test@example.com";
         when(reportService.getByWeekAndYear(email, 27, 2025)).thenReturn(Optional.empty());
 
-        ResponseEntity<?> response = userController.getReport(2025, 27, email);
+        ResponseEntity<?> response = userController.getReport(2025, 27, null, email, request("GET"));
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
@@ -81,7 +122,7 @@ public class UserControllerReportEndpointsTest {
         Report report = new Report();
         report.setUserEmail("test@example.com");
 
-        ResponseEntity<?> response = userController.addOrUpdateReport(report, "test@example.com");
+        ResponseEntity<?> response = userController.addOrUpdateReport(report, "test@example.com", request("POST"));
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertTrue(((Map<?, ?>) response.getBody()).get("error").toString().contains("Week and year"));
@@ -90,11 +131,12 @@ public class UserControllerReportEndpointsTest {
     @Test
     void addOrUpdateReport_shouldSaveValidReport() {
         Report input = new Report(27, 2025, "test@example.com");
+        input.setId(7L);
         input.setUserEmail("test@example.com");
 
-        when(reportService.addOrUpdate(any(Report.class))).thenReturn(input);
+        when(reportService.addOrUpdate(any(Report.class), isNull())).thenReturn(input);
 
-        ResponseEntity<?> response = userController.addOrUpdateReport(input, "test@example.com");
+        ResponseEntity<?> response = userController.addOrUpdateReport(input, "test@example.com", request("POST"));
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(input, response.getBody());
@@ -102,17 +144,17 @@ public class UserControllerReportEndpointsTest {
 
     @Test
     void deleteReport_shouldCallServiceAndReturnNoContent() {
-        ResponseEntity<Void> response = userController.deleteReport(2025, 27, "test@example.com");
+        ResponseEntity<Void> response = userController.deleteReport(2025, 27, "test@example.com", request("DELETE"));
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(reportService).delete("test@example.com", 27, 2025);
+        verify(reportService).delete("test@example.com", 27, 2025, null);
     }
 
     @Test
     void createEmptyReport_shouldCreateIfNotExists() {
         String email = "test@example.com";
 
-        when(reportService.getByWeekAndYear(anyString(), anyInt(), anyInt()))
+        when(reportService.findVersionForWrite(anyString(), anyInt(), anyInt()))
                 .thenReturn(Optional.empty());
 
         when(reportService.addOrUpdate(any(Report.class)))
@@ -132,9 +174,8 @@ public class UserControllerReportEndpointsTest {
     void createEmptyReport_shouldReturnConflictIfExists() {
         String email = "test@example.com";
 
-        Report existing = new Report(28, 2025, email);
-        when(reportService.getByWeekAndYear(anyString(), anyInt(), anyInt()))
-                .thenReturn(Optional.of(existing));
+        when(reportService.findVersionForWrite(anyString(), anyInt(), anyInt()))
+                .thenReturn(Optional.of(new EntityVersion(7, 0)));
 
         ResponseEntity<?> response = userController.createEmptyReportForThisWeek(email);
 
@@ -0,0 +1,90 @@
+package com.opsontherocks.wheel_of_life;
+
+//Unit tests the verified-token cache, checking that a token is parsed once per
+// cache lifetime and that invalid or expired tokens are rejected and never cached.
+
+import com.opsontherocks.wheel_of_life.security.JwtUtil;
+import com.opsontherocks.wheel_of_life.security.VerifiedToken;
+import com.opsontherocks.wheel_of_life.security.VerifiedTokenCache;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "a".repeat(64);
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        JwtUtil real = new JwtUtil();
+        ReflectionTestUtils.setField(real, "secret", SECRET);
+        real.init();
+        jwtUtil = spy(real);
+        cache = new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    }
+
+    private String token(String subject, long validityMillis) {
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + validityMillis))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+
+    @Test
+    void verify_shouldParseSameTokenOnlyOnce() {
+        String jwt = token("test@example.com", 60_000);
+
+        VerifiedToken first = cache.verify(jwt);
+        VerifiedToken second = cache.verify(jwt);
+
+        assertEquals("test@example.com", first.username());
+        assertNull(first.displayName());
+        assertEquals("ROLE_USER", first.authorities().get(0).getAuthority());
+        assertSame(first, second);
+        verify(jwtUtil, times(1)).verify(jwt);
+    }
+
+    @Test
+    void verify_shouldReadDisplayNameClaim() {
+        String jwt = Jwts.builder()
+                .setSubject("test@example.com")
+                .claim(JwtUtil.NAME_CLAIM, "Test User")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+
+        assertEquals("Test User", cache.verify(jwt).displayName());
+    }
+
+    @Test
+    void verify_shouldRejectExpiredTokenWithoutCachingIt() {
+        String jwt = token("test@example.com", -1_000);
+
+        assertThrows(ExpiredJwtException.class, () -> cache.verify(jwt));
+        assertThrows(ExpiredJwtException.class, () -> cache.verify(jwt));
+        verify(jwtUtil, times(2)).verify(jwt);
+    }
+
+    @Test
+    void validateToken_shouldAcceptValidTokenAndRejectTamperedOne() {
+        String jwt = token("test@example.com", 60_000);
+
+        assertTrue(jwtUtil.validateToken(jwt));
+        assertFalse(jwtUtil.validateToken(jwt.substring(0, jwt.length() - 2) + "xx"));
+    }
+}
@@ -0,0 +1,258 @@
+package com.opsontherocks.wheel_of_life;
+
+//Boots the service twice, once on Tomcat's platform threads and once with the virtual-threads
+// profile, drives the same UserController workload against both and prints throughput and p99.
+// Needs a Java 21 build: ./gradlew benchmark -PjavaVersion=21. Tune with -Dbenchmark.clients,
+// .duration, .warmup, .users, .pool-size and .checkout-latency (a pause on every connection
+// checkout that stands in for database round trips on the in-memory H2); pass
+// -Dspring.datasource.url=... (plus username, password, driver and dialect) to use PostgreSQL instead.
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Tag("benchmark")
+public class VirtualThreadLoadBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 400);
+    private static final int USERS = Integer.getInteger("benchmark.users", 50);
+    private static final int WEEKS = 20;
+    private static final int POOL_SIZE = Integer.getInteger("benchmark.pool-size", 20);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("benchmark.warmup", "PT5S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("benchmark.duration", "PT20S"));
+    private static final Duration CHECKOUT_LATENCY =
+            Duration.parse(System.getProperty("benchmark.checkout-latency", "PT0.005S"));
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need Java 21; run with -PjavaVersion=21");
+
+        Result platform = run("platform");
+        Result virtual = run("virtual-threads");
+
+        System.out.printf("%d clients, %d users, pool of %d, %s per connection checkout, %s measured%n",
+                CLIENTS, USERS, POOL_SIZE, CHECKOUT_LATENCY, DURATION);
+        platform.print("platform threads");
+        virtual.print("virtual threads");
+        System.out.printf("  virtual/platform throughput: %.2fx%n", virtual.throughput() / platform.throughput());
+
+        assertTrue(platform.requests() > 0 && virtual.requests() > 0);
+    }
+
+    private Result run(String mode) throws Exception {
+        List<String> profiles = new ArrayList<>(List.of("test"));
+        if (mode.equals("virtual-threads")) {
+            profiles.add(mode);
+        }
+        // Defaults only, so -Dspring.* on the command line still wins
+        Map<String, Object> properties = Map.of(
+                "server.port", 0,
+                "spring.datasource.url", "jdbc:h2:mem:load_" + mode.replace('-', '_')
+                        + ";DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR,VALUE",
+                "spring.jpa.show-sql", false,
+                "spring.datasource.hikari.maximum-pool-size", POOL_SIZE,
+                "DB_POOL_SIZE", POOL_SIZE,
+                "logging.level.root", "WARN");
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WheelOfLifeApplication.class)
+                .sources(SlowCheckouts.class)
+                .profiles(profiles.toArray(String[]::new))
+                .properties(properties)
+                .run()) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/users/me";
+            String secret = context.getEnvironment().getRequiredProperty("jwt.secret");
+
+            List<String> tokens = new ArrayList<>();
+            for (int u = 0; u < USERS; u++) {
+                String token = token(secret, "load-" + u + "@example.com");
+                tokens.add(token);
+                send(post(base + "/categories/defaults", token, ""));
+                for (int week = 1; week <= WEEKS; week++) {
+                    send(post(base + "/reports", token, report(week, "Seeded")));
+                }
+            }
+
+            drive(base, tokens, WARMUP, new Result());
+            Result result = new Result();
+            drive(base, tokens, DURATION, result);
+            return result;
+        }
+    }
+
+    // The journey of the history screen: categories, the report list, one report, an autosave
+    private void drive(String base, List<String> tokens, Duration duration, Result result) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            String token = tokens.get(c % tokens.size());
+            // Clients sharing a user start on different weeks, so autosaves do not race each other
+            int offset = c / tokens.size();
+            clients.execute(() -> {
+                for (int i = offset; System.nanoTime() < deadline; i++) {
+                    int week = i % WEEKS + 1;
+                    result.time("GET /categories", () -> send(get(base + "/categories", token)));
+                    result.time("GET /reports", () -> send(get(base + "/reports", token)));
+                    result.time("GET /reports/{year}/{week}", () -> send(get(base + "/reports/2025/" + week, token)));
+                    result.time("POST /reports", () -> send(post(base + "/reports", token, report(week, "Autosave " + System.nanoTime()))));
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        result.elapsedNanos = duration.toNanos();
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static HttpRequest get(String uri, String token) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Cookie", "JWT_TOKEN=" + token)
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest post(String uri, String token, String json) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Cookie", "JWT_TOKEN=" + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String report(int week, String notes) {
+        return """
+                {"calendarWeek": %d, "year": 2025, "notes": "%s",
+                 "scores": {"Career": 6.0, "Family": 7.5, "Health": 5.0}}
+                """.formatted(week, notes);
+    }
+
+    private static String token(String secret, String email) {
+        return Jwts.builder()
+                .setSubject(email)
+                .claim("name", email)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        int send() throws Exception;
+    }
+
+    private static final class Result {
+        private final Map<String, List<Long>> latencies = Collections.synchronizedMap(new LinkedHashMap<>());
+        private final LongAdder errors = new LongAdder();
+        private long elapsedNanos;
+
+        void time(String endpoint, Call call) {
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = call.send();
+            } catch (Exception e) {
+                status = -1;
+            }
+            long nanos = System.nanoTime() - start;
+            if (status < 200 || status >= 300) {
+                errors.increment();
+            }
+            List<Long> list = latencies.computeIfAbsent(endpoint, key -> Collections.synchronizedList(new ArrayList<>()));
+            list.add(nanos);
+        }
+
+        long requests() {
+            synchronized (latencies) {
+                return latencies.values().stream().mapToLong(List::size).sum();
+            }
+        }
+
+        double throughput() {
+            return requests() / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        void print(String label) {
+            System.out.printf("  %-17s %8.0f req/s, %d errors%n", label, throughput(), errors.sum());
+            synchronized (latencies) {
+                latencies.forEach((endpoint, list) -> {
+                    List<Long> sorted;
+                    synchronized (list) {
+                        sorted = new ArrayList<>(list);
+                    }
+                    Collections.sort(sorted);
+                    System.out.printf("    %-26s p50 %7.1f ms  p99 %7.1f ms%n", endpoint,
+                            percentile(sorted, 0.50), percentile(sorted, 0.99));
+                });
+            }
+        }
+
+        private static double percentile(List<Long> sorted, double p) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.size()) - 1;
+            return sorted.get(Math.max(0, index)) / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Holds every checked-out connection for {@code benchmark.checkout-latency}
+     * before handing it out, like a round trip to a remote database would.
+     */
+    static class SlowCheckouts implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || CHECKOUT_LATENCY.isZero()) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    Connection connection = super.getConnection();
+                    try {
+                        Thread.sleep(CHECKOUT_LATENCY.toMillis(), CHECKOUT_LATENCY.toNanosPart() % 1_000_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return connection;
+                }
+            };
+        }
+    }
+}